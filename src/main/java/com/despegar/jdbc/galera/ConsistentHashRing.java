@@ -0,0 +1,63 @@
+package com.despegar.jdbc.galera;
+
+import com.google.common.base.Charsets;
+import com.google.common.hash.HashFunction;
+import com.google.common.hash.Hashing;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Consistent hash ring over a set of galera nodes. Each node owns many virtual points on the ring, so keys spread evenly and adding or
+ * removing a node only moves the keys of that node. The ring is immutable and lookups are a binary search.
+ */
+final class ConsistentHashRing {
+    static final int VIRTUAL_NODES = 160;
+
+    private static final HashFunction HASH = Hashing.murmur3_32();
+
+    private final int[] points;
+    private final GaleraNode[] owners;
+
+    ConsistentHashRing(List<GaleraNode> nodes) {
+        int size = nodes.size() * VIRTUAL_NODES;
+        // Hash in the high bits, owner index in the low ones, so sorting keeps them together
+        long[] entries = new long[size];
+        int entry = 0;
+        for (int i = 0; i < nodes.size(); i++) {
+            String node = nodes.get(i).node;
+            for (int virtualNode = 0; virtualNode < VIRTUAL_NODES; virtualNode++) {
+                entries[entry++] = ((long) hash(node + "#" + virtualNode) << 32) | i;
+            }
+        }
+        Arrays.sort(entries);
+
+        points = new int[size];
+        owners = new GaleraNode[size];
+        for (int i = 0; i < size; i++) {
+            points[i] = (int) (entries[i] >> 32);
+            owners[i] = nodes.get((int) entries[i]);
+        }
+    }
+
+    static int hash(String key) {
+        return HASH.hashString(key, Charsets.UTF_8).asInt();
+    }
+
+    /**
+     * @return the node owning the first point at or after the key hash, or null if the ring is empty
+     */
+    GaleraNode node(String key) {
+        if (points.length == 0) {
+            return null;
+        }
+        int index = Arrays.binarySearch(points, hash(key));
+        if (index < 0) {
+            index = -index - 1;
+            if (index == points.length) {
+                index = 0;
+            }
+        }
+        return owners[index];
+    }
+}
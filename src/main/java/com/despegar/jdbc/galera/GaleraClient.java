@@ -1,18 +1,38 @@
 package com.despegar.jdbc.galera;
 
 import com.codahale.metrics.MetricRegistry;
+import com.despegar.jdbc.galera.connection.LazyConnection;
+import com.despegar.jdbc.galera.connection.RoutingConnection;
+import com.despegar.jdbc.galera.connection.SqlClassifier;
+import com.despegar.jdbc.galera.consistency.CausalityToken;
 import com.despegar.jdbc.galera.consistency.ConsistencyLevel;
+import com.despegar.jdbc.galera.consistency.ConsistencyLevelSupport;
 import com.despegar.jdbc.galera.listener.GaleraClientListener;
 import com.despegar.jdbc.galera.listener.GaleraClientLoggingListener;
+import com.despegar.jdbc.galera.listener.WriterChangeListener;
 import com.despegar.jdbc.galera.metrics.PoolMetrics;
 import com.despegar.jdbc.galera.policies.ElectionNodePolicy;
+import com.despegar.jdbc.galera.policies.FlowControlAwarePolicy;
+import com.despegar.jdbc.galera.policies.LagAwarePolicy;
+import com.despegar.jdbc.galera.policies.LeastInFlightConnectionsPolicy;
+import com.despegar.jdbc.galera.policies.NodeAwareElectionNodePolicy;
+import com.despegar.jdbc.galera.policies.NodeAwareElectionNodePolicyAdapter;
 import com.despegar.jdbc.galera.policies.RoundRobinPolicy;
+import com.despegar.jdbc.galera.policies.SegmentAwarePolicy;
+import com.despegar.jdbc.galera.policies.SingleWriterPolicy;
 import com.despegar.jdbc.galera.settings.ClientSettings;
 import com.despegar.jdbc.galera.settings.DiscoverSettings;
 import com.despegar.jdbc.galera.settings.PoolSettings;
+import com.despegar.jdbc.galera.settings.StatusChannel;
+import com.despegar.jdbc.galera.settings.StatusProbeMode;
 import com.google.common.base.Optional;
 import com.google.common.base.Preconditions;
 import com.google.common.base.Splitter;
+import com.google.common.base.Throwables;
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.MoreExecutors;
+import com.google.common.util.concurrent.SettableFuture;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -20,28 +40,64 @@ import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
 import java.io.PrintWriter;
 import java.sql.Connection;
+import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.concurrent.*;
 import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
 
 public class GaleraClient extends AbstractGaleraDataSource {
 
     private static final Logger LOG = LoggerFactory.getLogger(GaleraClient.class);
+    private static final long MAX_CLASSIFIED_STATEMENTS = 1000;
+    private static final String LAST_COMMITTED = "wsrep_last_committed";
+    private static final String QUERY_CAUSALITY_TOKEN =
+            "SHOW STATUS WHERE variable_name in ('" + LAST_COMMITTED + "', 'wsrep_cluster_state_uuid');";
     public static MetricRegistry metricRegistry = new MetricRegistry();
 
     protected Map<String, GaleraNode> nodes = new ConcurrentHashMap<String, GaleraNode>();
-    private List<String> activeNodes = new CopyOnWriteArrayList<String>();
+    private volatile GaleraTopology topology = GaleraTopology.EMPTY;
+    private final Object topologyLock = new Object();
     private List<String> downedNodes = new CopyOnWriteArrayList<String>();
     private ScheduledExecutorService scheduler = Executors.newScheduledThreadPool(1);
+    private ExecutorService probeExecutor = Executors.newCachedThreadPool(
+            new ThreadFactoryBuilder().setNameFormat("galera-status-probe-%d").setDaemon(true).build());
+    private Map<String, Future<GaleraStatus>> pendingProbes = new ConcurrentHashMap<String, Future<GaleraStatus>>();
+    private ExecutorService warmUpExecutor = Executors.newCachedThreadPool(
+            new ThreadFactoryBuilder().setNameFormat("galera-warm-up-%d").setDaemon(true).build());
+    private ConcurrentMap<String, SettableFuture<Void>> pendingActivations = new ConcurrentHashMap<String, SettableFuture<Void>>();
     private GaleraDB galeraDB;
     private PoolSettings poolSettings;
+    private PoolSettings readPoolSettings;
+    private List<PoolSettings> consistencyPoolSettings;
     private PoolSettings internalPoolSettings;
     private DiscoverSettings discoverSettings;
     private ClientSettings clientSettings;
+    private NodeAwareElectionNodePolicy causalReadPolicy;
+    private int defaultTransactionIsolation;
+    private SqlClassifier sqlClassifier = new SqlClassifier(MAX_CLASSIFIED_STATEMENTS);
+    private LazyConnection.ConnectionSource readConnectionSource = new LazyConnection.ConnectionSource() {
+        @Override
+        public Connection getConnection() throws SQLException {
+            return borrowReadConnection(null);
+        }
+    };
+    private LazyConnection.ConnectionSource writeConnectionSource = new LazyConnection.ConnectionSource() {
+        @Override
+        public Connection getConnection() throws SQLException {
+            return borrowWriteConnection(null);
+        }
+    };
     private AtomicBoolean isDiscoveryRunning = new AtomicBoolean(false);
+    private AtomicReference<FutureTask<Void>> forcedDiscovery = new AtomicReference<FutureTask<Void>>();
     private Runnable discoverRunnable = new Runnable() {
         @Override
         public void run() {
@@ -51,15 +107,52 @@ public class GaleraClient extends AbstractGaleraDataSource {
 
     protected GaleraClient(ClientSettings clientSettings, DiscoverSettings discoverSettings, GaleraDB galeraDB, PoolSettings poolSettings,
                            PoolSettings internalPoolSettings) {
+        this(clientSettings, discoverSettings, galeraDB, poolSettings, null, internalPoolSettings);
+    }
+
+    /**
+     * @param readPoolSettings settings of the read pool kept on each node, or null to take read connections from the same pool
+     */
+    protected GaleraClient(ClientSettings clientSettings, DiscoverSettings discoverSettings, GaleraDB galeraDB, PoolSettings poolSettings,
+                           PoolSettings readPoolSettings, PoolSettings internalPoolSettings) {
+        this(clientSettings, discoverSettings, galeraDB, poolSettings, readPoolSettings, Collections.<PoolSettings>emptyList(),
+             internalPoolSettings);
+    }
+
+    /**
+     * @param consistencyPoolSettings settings of the pools kept on each node whose connections are pinned to their consistency level
+     */
+    protected GaleraClient(ClientSettings clientSettings, DiscoverSettings discoverSettings, GaleraDB galeraDB, PoolSettings poolSettings,
+                           PoolSettings readPoolSettings, List<PoolSettings> consistencyPoolSettings, PoolSettings internalPoolSettings) {
         this.galeraDB = galeraDB;
         this.poolSettings = poolSettings;
+        this.readPoolSettings = readPoolSettings;
+        this.consistencyPoolSettings = consistencyPoolSettings;
         this.internalPoolSettings = internalPoolSettings;
         this.discoverSettings = discoverSettings;
         this.clientSettings = clientSettings;
+        this.causalReadPolicy = NodeAwareElectionNodePolicyAdapter.adapt(clientSettings.readNodeSelectionPolicy);
+        this.defaultTransactionIsolation = transactionIsolation(poolSettings.isolationLevel);
         registerNodes(clientSettings.seeds);
+        awaitActivations();
         startDiscovery(discoverSettings.discoverPeriod);
     }
 
+    /**
+     * @param isolationLevel name of a {@link Connection} TRANSACTION_* constant, as Hikari takes it
+     * @return the constant value, or -1 if it is unknown
+     */
+    private static int transactionIsolation(String isolationLevel) {
+        if (isolationLevel == null) {
+            return -1;
+        }
+        try {
+            return Connection.class.getField(isolationLevel).getInt(null);
+        } catch (NoSuchFieldException | IllegalAccessException e) {
+            return -1;
+        }
+    }
+
     public static GaleraClient.Builder newBuilder() {
         return new GaleraClient.Builder();
     }
@@ -81,11 +174,18 @@ public class GaleraClient extends AbstractGaleraDataSource {
             LOG.debug("Discovering Galera cluster...");
         }
         try {
-            discoverActiveNodes();
-            testDownedNodes();
+            // Every node is probed at once, so a hung node only delays this cycle up to the probe deadline
+            Map<String, Future<GaleraStatus>> activeProbes = probe(topology.nodeNames());
+            Map<String, Future<GaleraStatus>> downedProbes = probe(downedNodes);
+            long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(discoverSettings.discoverTimeout);
+
+            discoverActiveNodes(activeProbes, deadline);
+            testDownedNodes(downedProbes, deadline);
+            closeExpiredDrains();
+            updateSeqnoLag();
 
             if (LOG.isDebugEnabled()) {
-                LOG.debug("Active nodes: {},  Downed nodes: {}", activeNodes, downedNodes);
+                LOG.debug("Active nodes: {},  Downed nodes: {}", topology.nodeNames(), downedNodes);
             }
         } catch (Throwable reason) {
             LOG.error("Galera discovery failed", reason);
@@ -99,12 +199,12 @@ public class GaleraClient extends AbstractGaleraDataSource {
 
     }
 
-    private void testDownedNodes() {
-        for (String downedNode : downedNodes) {
+    private void testDownedNodes(Map<String, Future<GaleraStatus>> probes, long deadline) {
+        for (Map.Entry<String, Future<GaleraStatus>> probe : probes.entrySet()) {
+            String downedNode = probe.getKey();
             try {
-                discover(downedNode);
-                GaleraNode galeraNode = nodes.get(downedNode);
-                if (galeraNode != null && !(galeraNode.status().isDonor() && discoverSettings.ignoreDonor) && galeraNode.status().isPrimary()) {
+                GaleraStatus status = discover(downedNode, probe.getValue(), deadline);
+                if (status != null && nodes.containsKey(downedNode) && !(status.isDonor() && discoverSettings.ignoreDonor) && status.isPrimary()) {
                     if (LOG.isDebugEnabled()) {
                         LOG.debug("Will activate a previous downed node: {}", downedNode);
                     }
@@ -116,17 +216,124 @@ public class GaleraClient extends AbstractGaleraDataSource {
         }
     }
 
-    private void activate(String downedNode) {
-        if (!activeNodes.contains(downedNode)) {
-            if (LOG.isDebugEnabled()) {
-                LOG.debug("Activating node:  {}", downedNode);
+    /**
+     * Creates the node pools and publishes it. With warm up, pools are filled on the warm up executor instead, bounded by discoverTimeout,
+     * and the node is published back on the discovery thread once they are ready, so discovery never waits for it.
+     */
+    private void activate(final String node) throws SQLException {
+        if (isActive(node) || pendingActivations.containsKey(node)) {
+            return;
+        }
+        if (LOG.isDebugEnabled()) {
+            LOG.debug("Activating node:  {}", node);
+        }
+
+        final GaleraNode galeraNode = nodes.get(node);
+        boolean draining = galeraNode.hasPool();
+        galeraNode.onActivate();
+        if (draining || !poolSettings.warmUp) {
+            publish(node);
+            return;
+        }
+
+        final SettableFuture<Void> activation = SettableFuture.create();
+        final long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(discoverSettings.discoverTimeout);
+        pendingActivations.put(node, activation);
+        try {
+            final Future<?> warmUp = warmUpExecutor.submit(new Runnable() {
+                @Override
+                public void run() {
+                    Exception failure = null;
+                    try {
+                        galeraNode.warmUp(warmUpExecutor, deadline);
+                    } catch (Exception e) {
+                        failure = e;
+                    }
+                    onWarmedUp(node, activation, failure);
+                }
+            });
+            activation.addListener(new Runnable() {
+                @Override
+                public void run() {
+                    if (activation.isCancelled()) {
+                        warmUp.cancel(true);
+                    }
+                }
+            }, MoreExecutors.directExecutor());
+        } catch (RejectedExecutionException e) {
+            pendingActivations.remove(node);
+            throw e;
+        }
+    }
+
+    private void onWarmedUp(final String node, final SettableFuture<Void> activation, final Exception failure) {
+        try {
+            scheduler.execute(new Runnable() {
+                @Override
+                public void run() {
+                    completeActivation(node, activation, failure);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            LOG.debug("Discovery scheduler is shut down, node {} is not published", node);
+            activation.cancel(false);
+        }
+    }
+
+    private void completeActivation(String node, SettableFuture<Void> activation, Exception failure) {
+        // If the node went down or was removed meanwhile, that already cancelled this activation and closed its pools
+        if (!pendingActivations.remove(node, activation)) {
+            return;
+        }
+        try {
+            if (failure != null) {
+                LOG.warn("Could not warm up node " + node, failure);
+                down(node, "warm up failed. " + failure.getMessage());
+            } else {
+                publish(node);
             }
+        } finally {
+            activation.set(null);
+        }
+    }
+
+    private void cancelActivation(String node) {
+        Future<Void> activation = pendingActivations.remove(node);
+        if (activation != null) {
+            activation.cancel(true);
+        }
+    }
+
+    private void publish(String node) {
+        GaleraNode galeraNode = nodes.get(node);
+        GaleraTopology previous;
+        GaleraTopology current;
+        synchronized (topologyLock) {
+            previous = topology;
+            current = previous.with(galeraNode);
+            topology = current;
+        }
+        downedNodes.remove(node);
 
-            nodes.get(downedNode).onActivate();
-            activeNodes.add(downedNode);
-            downedNodes.remove(downedNode);
+        clientSettings.galeraClientListener.onActivatingNode(node);
+        onTopologyChange(previous, current);
+    }
 
-            clientSettings.galeraClientListener.onActivatingNode(downedNode);
+    /**
+     * Seeds are warmed up before the client is handed out, so its first requests already find active nodes.
+     */
+    private void awaitActivations() {
+        // Warm up is bounded by discoverTimeout, we give publishing the node as much again
+        long deadline = System.nanoTime() + 2 * TimeUnit.MILLISECONDS.toNanos(discoverSettings.discoverTimeout);
+        for (Future<Void> activation : new ArrayList<Future<Void>>(pendingActivations.values())) {
+            try {
+                activation.get(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (TimeoutException | ExecutionException | CancellationException e) {
+                LOG.debug("Seed activation did not finish in time", e);
+            }
         }
     }
 
@@ -134,7 +341,8 @@ public class GaleraClient extends AbstractGaleraDataSource {
         if (LOG.isDebugEnabled()) {
             LOG.debug("Marking node {} as down due to {}", node, cause);
         }
-        activeNodes.remove(node);
+        cancelActivation(node);
+        deactivate(node);
         if (!downedNodes.contains(node)) {
             downedNodes.add(node);
         }
@@ -143,21 +351,117 @@ public class GaleraClient extends AbstractGaleraDataSource {
         clientSettings.galeraClientListener.onMarkingNodeAsDown(node, cause);
     }
 
-    private void discoverActiveNodes() {
-        for (String node : activeNodes) {
+    /**
+     * Soft failures (non Primary, not Synced) are usually short blips. If a drain grace period is configured, the node stops receiving new
+     * borrows but its pool is kept, so in flight connections finish and the node is usable right away if it comes back in time.
+     */
+    private void softDown(String node, String cause) {
+        if (discoverSettings.drainGracePeriod <= 0) {
+            down(node, cause);
+            return;
+        }
+
+        // A node still warming up has no borrows to drain
+        GaleraNode galeraNode = nodes.get(node);
+        if (galeraNode == null || !galeraNode.hasPool() || pendingActivations.containsKey(node)) {
+            down(node, cause);
+            return;
+        }
+
+        if (LOG.isDebugEnabled()) {
+            LOG.debug("Draining node {} due to {}", node, cause);
+        }
+        deactivate(node);
+        if (!downedNodes.contains(node)) {
+            downedNodes.add(node);
+        }
+        if (galeraNode.onDrain()) {
+            clientSettings.galeraClientListener.onMarkingNodeAsDown(node, "draining, " + cause);
+        }
+    }
+
+    private void closeExpiredDrains() {
+        for (GaleraNode galeraNode : nodes.values()) {
+            if (galeraNode.isDrainExpired(discoverSettings.drainGracePeriod)) {
+                LOG.info("Node {} did not recover within the drain grace period", galeraNode.node);
+                galeraNode.onDown();
+            }
+        }
+    }
+
+    /**
+     * Nodes are probed in parallel, so their seqnos are close enough in time to tell which ones lag behind their peers.
+     */
+    private void updateSeqnoLag() {
+        List<GaleraNode> activeNodes = topology.nodes();
+        long maxLastCommitted = -1;
+        for (GaleraNode galeraNode : activeNodes) {
+            GaleraStatus status = galeraNode.lastStatus();
+            if (status != null) {
+                maxLastCommitted = Math.max(maxLastCommitted, status.lastCommitted());
+            }
+        }
+        for (GaleraNode galeraNode : activeNodes) {
+            GaleraStatus status = galeraNode.lastStatus();
+            long lastCommitted = status != null ? status.lastCommitted() : -1;
+            long seqnoLag = (maxLastCommitted >= 0 && lastCommitted >= 0) ? maxLastCommitted - lastCommitted : -1;
+            galeraNode.updateSeqnoLag(seqnoLag);
+            if (LOG.isDebugEnabled() && seqnoLag > 0) {
+                LOG.debug("Node {} is {} write sets behind", galeraNode.node, seqnoLag);
+            }
+        }
+    }
+
+    private void discoverActiveNodes(Map<String, Future<GaleraStatus>> probes, long deadline) {
+        for (Map.Entry<String, Future<GaleraStatus>> probe : probes.entrySet()) {
+            String node = probe.getKey();
             try {
-                discover(node);
+                discover(node, probe.getValue(), deadline);
             } catch (Exception e) {
                 down(node, "failure in connection. " + e.getMessage());
             }
         }
     }
 
+    private void deactivate(String node) {
+        GaleraTopology previous;
+        GaleraTopology current;
+        synchronized (topologyLock) {
+            previous = topology;
+            current = previous.without(node);
+            topology = current;
+        }
+        onTopologyChange(previous, current);
+    }
+
+    /**
+     * The writer is elected once per topology change. Clients see the new writer as soon as the new topology is published, the listener is
+     * told afterwards so it can make in flight writers reconnect.
+     */
+    private void onTopologyChange(GaleraTopology previous, GaleraTopology current) {
+        GaleraNode previousWriter = previous.writer();
+        GaleraNode writer = current.writer();
+        if (previousWriter != writer) {
+            String previousMaster = (previousWriter != null) ? previousWriter.node : null;
+            String newMaster = (writer != null) ? writer.node : null;
+            LOG.info("Writer node changed from {} to {}", previousMaster, newMaster);
+            if (clientSettings.galeraClientListener instanceof WriterChangeListener) {
+                ((WriterChangeListener) clientSettings.galeraClientListener).onSelectingNewMaster(previousMaster, newMaster);
+            }
+        }
+    }
+
     private void removeNode(String node) {
-        activeNodes.remove(node);
+        cancelActivation(node);
+        deactivate(node);
         downedNodes.remove(node);
         shutdownGaleraNode(node);
         nodes.remove(node);
+        // A probe still running is kept, so if the node is discovered again we wait on it instead of probing a hung node twice
+        Future<GaleraStatus> pendingProbe = pendingProbes.get(node);
+        if (pendingProbe != null && pendingProbe.isDone()) {
+            pendingProbes.remove(node, pendingProbe);
+        }
 
         clientSettings.galeraClientListener.onRemovingNode(node);
     }
@@ -178,33 +482,43 @@ public class GaleraClient extends AbstractGaleraDataSource {
     }
 
     private void discover(String node) throws Exception {
+        Future<GaleraStatus> probe = probe(node);
+        discover(node, probe, System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(discoverSettings.discoverTimeout));
+    }
+
+    /**
+     * @return the probed status, or null if the node could not be probed
+     */
+    private GaleraStatus discover(String node, Future<GaleraStatus> probe, long deadline) throws Exception {
         LOG.trace("Discovering {}...", node);
 
         GaleraStatus status = null;
         try {
-            status = refreshStatus(node);
+            status = awaitProbe(probe, deadline);
         } catch (Exception e) {
             LOG.error("We could not refresh node status for " + node + " so we remove it", e);
             removeNode(node);
-            return;
+            return null;
         }
 
         if (!status.isPrimary()) {
             if (LOG.isDebugEnabled()) {
                 LOG.debug("On discover - Non primary node {}", node);
             }
-            down(node, "non Primary");
-            return;
+            softDown(node, "non Primary");
+            return status;
         }
 
         if (!status.isSynced() && (discoverSettings.ignoreDonor || !status.isDonor())) {
             if (LOG.isDebugEnabled()) {
                 LOG.debug("On discover - State not ready [{}] - Ignore donor [{}] : {}", status.state(), discoverSettings.ignoreDonor, node);
             }
-            down(node, "state not ready: " + status.state());
-            return;
+            softDown(node, "state not ready: " + status.state());
+            return status;
         }
 
+        updateFlowControl(node, status);
+
         Collection<String> discoveredNodes = status.getClusterNodes();
         LOG.trace("Cluster nodes: {}", discoveredNodes);
 
@@ -222,20 +536,85 @@ public class GaleraClient extends AbstractGaleraDataSource {
                 activate(node);
             }
         }
+        return status;
+    }
+
+    private void updateFlowControl(String node, GaleraStatus status) {
+        GaleraNode galeraNode = nodes.get(node);
+        if (galeraNode == null || !galeraNode.updateFlowControl(status, discoverSettings.flowControlRecvQueueHigh,
+                                                                discoverSettings.flowControlRecvQueueLow)) {
+            return;
+        }
+        if (galeraNode.isFlowControlThrottled()) {
+            LOG.warn("Node {} is triggering flow control (recv queue {}, flow control sent {}, flow control paused {})", node, status.recvQueue(),
+                     status.flowControlSent(), status.flowControlPaused());
+        } else {
+            LOG.info("Node {} is no longer triggering flow control (recv queue {})", node, status.recvQueue());
+        }
+    }
+
+    private Map<String, Future<GaleraStatus>> probe(Collection<String> nodesToProbe) {
+        Map<String, Future<GaleraStatus>> probes = new LinkedHashMap<String, Future<GaleraStatus>>();
+        for (String node : nodesToProbe) {
+            probes.put(node, probe(node));
+        }
+        return probes;
+    }
+
+    /**
+     * Starts refreshing the node status on the probe executor. A node whose previous probe is still running (e.g. hung until readTimeout)
+     * is not probed again, we keep waiting on the former probe instead of piling up threads on it.
+     */
+    private Future<GaleraStatus> probe(final String node) {
+        Future<GaleraStatus> pendingProbe = pendingProbes.get(node);
+        if (pendingProbe != null && !pendingProbe.isDone()) {
+            LOG.debug("Previous status probe for {} is still running", node);
+            return pendingProbe;
+        }
+
+        try {
+            Future<GaleraStatus> probe = probeExecutor.submit(new Callable<GaleraStatus>() {
+                @Override
+                public GaleraStatus call() throws Exception {
+                    return refreshStatus(node);
+                }
+            });
+            pendingProbes.put(node, probe);
+            return probe;
+        } catch (RejectedExecutionException e) {
+            return Futures.immediateFailedFuture(e);
+        }
     }
 
-    private GaleraStatus refreshStatus(String node) throws Exception {
+    private GaleraStatus awaitProbe(Future<GaleraStatus> probe, long deadline) throws Exception {
+        try {
+            return probe.get(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+        } catch (ExecutionException e) {
+            Throwables.propagateIfInstanceOf(e.getCause(), Exception.class);
+            throw Throwables.propagate(e.getCause());
+        } catch (TimeoutException e) {
+            throw new TimeoutException("Status probe did not finish within " + discoverSettings.discoverTimeout + " ms");
+        }
+    }
+
+    GaleraStatus refreshStatus(String node) throws Exception {
         if (clientSettings.testMode) {
             return GaleraStatus.buildTestStatusOk(node);
         }
-
         GaleraNode galeraNode = nodes.get(node);
+        if (galeraNode == null) {
+            throw new IllegalStateException("Node " + node + " is no longer registered");
+        }
         galeraNode.refreshStatus();
         return galeraNode.status();
     }
 
+    GaleraTopology topology() {
+        return topology;
+    }
+
     private boolean isActive(String node) {
-        return activeNodes.contains(node);
+        return topology.contains(node);
     }
 
     private boolean isNewNodeOnCluster(String discoveredNode) {
@@ -259,7 +638,8 @@ public class GaleraClient extends AbstractGaleraDataSource {
     private void registerNode(String node) {
         LOG.info("Registering Galera node: {}", node);
         try {
-            nodes.put(node, new GaleraNode(node, galeraDB, poolSettings, internalPoolSettings, clientSettings.testMode));
+            nodes.put(node, new GaleraNode(node, galeraDB, poolSettings, readPoolSettings, consistencyPoolSettings, internalPoolSettings, discoverSettings,
+                                           clientSettings.testMode));
             discover(node);
         } catch (Exception e) {
             LOG.error("Could not register node " + node, e);
@@ -269,11 +649,26 @@ public class GaleraClient extends AbstractGaleraDataSource {
 
     @Override
     public Connection getConnection() throws SQLException {
+        if (clientSettings.statementRouting) {
+            return new RoutingConnection(writeConnectionSource, readConnectionSource, sqlClassifier, poolSettings.autocommit, poolSettings.readOnly,
+                                         defaultTransactionIsolation);
+        }
+        if (clientSettings.lazyConnections) {
+            return lazyConnection(poolSettings, new LazyConnection.ConnectionSource() {
+                @Override
+                public Connection getConnection() throws SQLException {
+                    return borrowConnection();
+                }
+            });
+        }
+        return borrowConnection();
+    }
+
+    private Connection borrowConnection() throws SQLException {
         try {
             return selectNode(null).getConnection();
         } catch (Exception e) {
-            LOG.info("Error getting connection. Forcing discovery...");
-            discovery();
+            onConnectionFailure();
             throw e;
         }
     }
@@ -293,7 +688,19 @@ public class GaleraClient extends AbstractGaleraDataSource {
      * @return a {@link Connection}
      * @throws SQLException - if a database access error occurs
      */
-    public Connection getConnection(ConsistencyLevel consistencyLevel, ElectionNodePolicy electionNodePolicy) throws SQLException {
+    public Connection getConnection(final ConsistencyLevel consistencyLevel, final ElectionNodePolicy electionNodePolicy) throws SQLException {
+        if (clientSettings.lazyConnections) {
+            return lazyConnection(poolSettings, new LazyConnection.ConnectionSource() {
+                @Override
+                public Connection getConnection() throws SQLException {
+                    return borrowConnection(consistencyLevel, electionNodePolicy);
+                }
+            });
+        }
+        return borrowConnection(consistencyLevel, electionNodePolicy);
+    }
+
+    private Connection borrowConnection(ConsistencyLevel consistencyLevel, ElectionNodePolicy electionNodePolicy) throws SQLException {
         ElectionNodePolicy policy = (electionNodePolicy != null) ? electionNodePolicy : clientSettings.defaultNodeSelectionPolicy;
         GaleraNode galeraNode = selectNode(policy);
         if (LOG.isDebugEnabled()) {
@@ -307,54 +714,323 @@ public class GaleraClient extends AbstractGaleraDataSource {
             }
 
         } catch (Exception e) {
-            LOG.info("Error getting connection. Forcing discovery...");
-            discovery();
+            onConnectionFailure();
             throw e;
         }
     }
 
-    protected GaleraNode selectNode(@Nullable ElectionNodePolicy electionNodePolicy) {
-        return getActiveGaleraNode(1, electionNodePolicy);
+    /**
+     * @return a {@link Connection} to run reads, from the node chosen by the read node selection policy (least in flight connections by
+     * default). If a read pool is configured, it comes from that pool.
+     * @throws SQLException - if a database access error occurs
+     */
+    public Connection getReadConnection() throws SQLException {
+        return getReadConnection(null);
     }
 
-    private GaleraNode getActiveGaleraNode(int retry, @Nullable ElectionNodePolicy electionNodePolicy) {
-        if (activeNodes.isEmpty()) {
+    /**
+     * @param consistencyLevel Set the consistencyLevel needed.
+     * @return a {@link Connection} to run reads, see {@link #getReadConnection()}
+     * @throws SQLException - if a database access error occurs
+     */
+    public Connection getReadConnection(final ConsistencyLevel consistencyLevel) throws SQLException {
+        if (clientSettings.lazyConnections) {
+            return lazyConnection((readPoolSettings != null) ? readPoolSettings : poolSettings, new LazyConnection.ConnectionSource() {
+                @Override
+                public Connection getConnection() throws SQLException {
+                    return borrowReadConnection(consistencyLevel);
+                }
+            });
+        }
+        return borrowReadConnection(consistencyLevel);
+    }
+
+    private Connection borrowReadConnection(ConsistencyLevel consistencyLevel) throws SQLException {
+        try {
+            GaleraNode galeraNode = selectNode(clientSettings.readNodeSelectionPolicy);
+            if (LOG.isDebugEnabled()) {
+                LOG.debug("Getting read connection [{}] from node {}", clientSettings.readNodeSelectionPolicy.getName(), galeraNode.node);
+            }
+            return (consistencyLevel != null) ? galeraNode.getReadConnection(consistencyLevel) : galeraNode.getReadConnection();
+        } catch (Exception e) {
+            onConnectionFailure();
+            throw e;
+        }
+    }
+
+    /**
+     * @return a {@link Connection} to run writes, from the node chosen by the write node selection policy (the single writer by default)
+     * @throws SQLException - if a database access error occurs
+     */
+    public Connection getWriteConnection() throws SQLException {
+        return getWriteConnection(null);
+    }
+
+    /**
+     * @param consistencyLevel Set the consistencyLevel needed.
+     * @return a {@link Connection} to run writes, see {@link #getWriteConnection()}
+     * @throws SQLException - if a database access error occurs
+     */
+    public Connection getWriteConnection(final ConsistencyLevel consistencyLevel) throws SQLException {
+        if (clientSettings.lazyConnections) {
+            return lazyConnection(poolSettings, new LazyConnection.ConnectionSource() {
+                @Override
+                public Connection getConnection() throws SQLException {
+                    return borrowWriteConnection(consistencyLevel);
+                }
+            });
+        }
+        return borrowWriteConnection(consistencyLevel);
+    }
+
+    private Connection borrowWriteConnection(ConsistencyLevel consistencyLevel) throws SQLException {
+        try {
+            GaleraNode galeraNode = selectNode(clientSettings.writeNodeSelectionPolicy);
+            if (LOG.isDebugEnabled()) {
+                LOG.debug("Getting write connection [{}] from node {}", clientSettings.writeNodeSelectionPolicy.getName(), galeraNode.node);
+            }
+            return (consistencyLevel != null) ? galeraNode.getConnection(consistencyLevel) : galeraNode.getConnection();
+        } catch (Exception e) {
+            onConnectionFailure();
+            throw e;
+        }
+    }
+
+    private LazyConnection lazyConnection(PoolSettings settings, LazyConnection.ConnectionSource source) {
+        return new LazyConnection(source, settings.autocommit, settings.readOnly, defaultTransactionIsolation);
+    }
+
+    /**
+     * Routes every connection for the same key (a tenant, an entity id, a table...) to the same node, while that node is active. Concurrent
+     * writes to the same rows from different nodes fail galera certification on commit, keeping them on a single node avoids most of these
+     * rollbacks. Keys are spread with a consistent hash ring, so when a node is activated or goes down only its share of keys move.
+     *
+     * @param routingKey key whose writes should not conflict across nodes
+     * @return a {@link Connection}
+     * @throws SQLException - if a database access error occurs
+     */
+    public Connection getConnection(String routingKey) throws SQLException {
+        return getConnection(routingKey, (ConsistencyLevel) null);
+    }
+
+    /**
+     * @param routingKey       key whose writes should not conflict across nodes, see {@link #getConnection(String)}
+     * @param consistencyLevel Set the consistencyLevel needed.
+     * @return a {@link Connection}
+     * @throws SQLException - if a database access error occurs
+     */
+    public Connection getConnection(String routingKey, ConsistencyLevel consistencyLevel) throws SQLException {
+        Preconditions.checkNotNull(routingKey, "Routing key is required");
+        GaleraTopology topology = this.topology;
+        GaleraNode galeraNode = topology.ring().node(routingKey);
+        if (galeraNode == null) {
             LOG.error("Could not get galera node cause there is no active node");
+            onConnectionFailure();
             throw new NoActiveNodeException();
         }
-        if (retry <= clientSettings.retriesToGetConnection) {
+        if (LOG.isDebugEnabled()) {
+            LOG.debug("Getting connection for routing key {} from node {}", routingKey, galeraNode.node);
+        }
+        try {
+            if (consistencyLevel != null) {
+                return galeraNode.getConnection(consistencyLevel);
+            } else {
+                return galeraNode.getConnection();
+            }
+        } catch (Exception e) {
+            onConnectionFailure();
+            throw e;
+        }
+    }
+
+    /**
+     * Captures the position of the writes committed on this connection, to read them later from any node with
+     * {@link #getReadConnectionAfter(CausalityToken)}. Call it after commit, before closing the connection.
+     *
+     * @param connection a connection of this client
+     * @return a {@link CausalityToken}
+     * @throws SQLException - if a database access error occurs or the node does not report wsrep_last_committed
+     */
+    public CausalityToken causalityToken(Connection connection) throws SQLException {
+        String clusterStateUuid = null;
+        long seqno = -1;
+        Statement statement = connection.createStatement();
+        // Known once the statement is created, as lazy connections only borrow then
+        GaleraNode origin = NodeConnection.galeraNodeOf(connection);
+        try {
+            ResultSet resultSet = statement.executeQuery(QUERY_CAUSALITY_TOKEN);
+            while (resultSet.next()) {
+                if (LAST_COMMITTED.equalsIgnoreCase(resultSet.getString(1))) {
+                    seqno = Long.parseLong(resultSet.getString(2));
+                } else {
+                    clusterStateUuid = resultSet.getString(2);
+                }
+            }
+        } catch (NumberFormatException e) {
+            throw new SQLException("Invalid wsrep_last_committed", e);
+        } finally {
+            statement.close();
+        }
+        // Without a seqno every node would look like it already applied the write
+        if (seqno < 0) {
+            throw new SQLException("wsrep_last_committed is not available, is the connection on a Galera node?");
+        }
+        return new CausalityToken(clusterStateUuid, seqno, (origin != null) ? origin.node : null);
+    }
+
+    /**
+     * Reads your writes without waiting for the whole cluster: the connection comes from a node that already applied the write of the token,
+     * as known from last discovery, or from the node it was committed on. If none of them is active, the connection is set to
+     * {@link ConsistencyLevel#SYNC_READS} (CAUSAL_READS_ON on earlier versions), so its reads wait for the node to catch up.
+     *
+     * @param causalityToken position of the write to read, see {@link #causalityToken(Connection)}
+     * @return a {@link Connection} to run reads
+     * @throws SQLException - if a database access error occurs
+     */
+    public Connection getReadConnectionAfter(CausalityToken causalityToken) throws SQLException {
+        Preconditions.checkNotNull(causalityToken, "Causality token is required");
+        try {
+            List<GaleraNode> appliedNodes = nodesThatApplied(this.topology, causalityToken);
+            if (!appliedNodes.isEmpty()) {
+                GaleraNode galeraNode = causalReadPolicy.chooseGaleraNode(appliedNodes);
+                if (LOG.isDebugEnabled()) {
+                    LOG.debug("Getting read connection for {} from node {}", causalityToken, galeraNode.node);
+                }
+                return galeraNode.getReadConnection();
+            }
+
+            GaleraNode galeraNode = selectNode(clientSettings.readNodeSelectionPolicy);
+            if (LOG.isDebugEnabled()) {
+                LOG.debug("No active node is known to have applied {}, waiting for node {} to catch up", causalityToken, galeraNode.node);
+            }
+            GaleraStatus status = galeraNode.lastStatus();
+            boolean supportsSyncWait = status == null || status.supportsSyncWait();
+            return galeraNode.getReadConnection(supportsSyncWait ? ConsistencyLevel.SYNC_READS : ConsistencyLevel.CAUSAL_READS_ON);
+        } catch (Exception e) {
+            onConnectionFailure();
+            throw e;
+        }
+    }
+
+    /**
+     * @return active nodes that applied the write of the token as of last discovery, plus the node it was committed on
+     */
+    static List<GaleraNode> nodesThatApplied(GaleraTopology topology, CausalityToken causalityToken) {
+        List<GaleraNode> appliedNodes = new ArrayList<GaleraNode>(topology.size());
+        for (GaleraNode galeraNode : topology.nodes()) {
+            // The origin node applied it on commit, even if discovery did not see it yet
+            if (galeraNode.node.equals(causalityToken.originNode()) || causalityToken.isAppliedOn(galeraNode.lastStatus())) {
+                appliedNodes.add(galeraNode);
+            }
+        }
+        return appliedNodes;
+    }
+
+    private void onConnectionFailure() {
+        LOG.info("Error getting connection. Forcing discovery...");
+        Future<?> discovery = requestDiscovery();
+
+        if (discoverSettings.forcedDiscoveryTimeout > 0) {
             try {
-                ElectionNodePolicy policy = (electionNodePolicy != null) ?
-                        electionNodePolicy :
-                        clientSettings.defaultNodeSelectionPolicy;
-                GaleraNode galeraNode = nodes.get(policy.chooseNode(activeNodes));
+                discovery.get(discoverSettings.forcedDiscoveryTimeout, TimeUnit.MILLISECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } catch (TimeoutException | ExecutionException | CancellationException e) {
+                LOG.debug("Forced discovery did not finish in time", e);
+            }
+        }
+    }
 
-                return galeraNode != null ? galeraNode : getActiveGaleraNode(++retry, electionNodePolicy);
+    /**
+     * Asks for a discovery on the discovery thread. Requests are coalesced: while a forced discovery is pending or running, every caller gets
+     * that same one, so a burst of failing requests only triggers a single cluster refresh.
+     *
+     * @return a {@link Future} that is done once the discovery finishes. Callers may wait for it with a deadline or just ignore it.
+     */
+    public Future<?> requestDiscovery() {
+        while (true) {
+            FutureTask<Void> pending = forcedDiscovery.get();
+            if (pending != null && !pending.isDone()) {
+                return pending;
+            }
 
+            FutureTask<Void> discovery = new FutureTask<Void>(discoverRunnable, null);
+            if (forcedDiscovery.compareAndSet(pending, discovery)) {
+                try {
+                    scheduler.execute(discovery);
+                } catch (RejectedExecutionException e) {
+                    LOG.debug("Discovery scheduler is shut down, skipping forced discovery");
+                    discovery.cancel(false);
+                }
+                return discovery;
+            }
+        }
+    }
+
+    protected GaleraNode selectNode(@Nullable ElectionNodePolicy electionNodePolicy) {
+        return getActiveGaleraNode(electionNodePolicy);
+    }
+
+    private GaleraNode getActiveGaleraNode(@Nullable ElectionNodePolicy electionNodePolicy) {
+        GaleraTopology topology = this.topology;
+        if (topology.isEmpty()) {
+            LOG.error("Could not get galera node cause there is no active node");
+            throw new NoActiveNodeException();
+        }
+        ElectionNodePolicy policy = (electionNodePolicy != null) ? electionNodePolicy : clientSettings.defaultNodeSelectionPolicy;
+
+        // The snapshot never changes under our feet, so we only try again if the policy itself fails
+        for (int retry = 1; retry <= clientSettings.retriesToGetConnection; retry++) {
+            try {
+                GaleraNode galeraNode = (policy instanceof NodeAwareElectionNodePolicy) ?
+                        ((NodeAwareElectionNodePolicy) policy).chooseGaleraNode(topology.nodes()) :
+                        topology.node(policy.chooseNode(topology.nodeNames()));
+                if (galeraNode != null) {
+                    return galeraNode;
+                }
+                LOG.warn("Policy {} chose a node that is not active. Retry {}/{}", policy.getName(), retry, clientSettings.retriesToGetConnection);
             } catch (Exception exception) {
                 LOG.warn("Error getting active galera node. Retry {}/{}. Reason {}", retry, clientSettings.retriesToGetConnection, exception);
-                return getActiveGaleraNode(++retry, electionNodePolicy);
             }
-        } else {
-            LOG.error("NoHostAvailableException selecting an active galera node. Max attempts reached");
-            throw new NoHostAvailableException(activeNodes);
         }
+
+        LOG.error("NoHostAvailableException selecting an active galera node. Max attempts reached");
+        throw new NoHostAvailableException(topology.nodeNames());
     }
 
     public void shutdown() {
         LOG.info("Shutting down Galera Client...");
 
         shutdownDiscoverScheduler();
-        shutdownActiveNodes();
+        shutdownProbeExecutor();
+        shutdownWarmUpExecutor();
+        shutdownNodes();
     }
 
-    private void shutdownActiveNodes() {
+    private void shutdownNodes() {
         try {
-            for (String activeNode : activeNodes) {
-                shutdownGaleraNode(activeNode);
+            // Not only active ones, draining nodes keep their pools open too
+            for (String node : nodes.keySet()) {
+                shutdownGaleraNode(node);
             }
         } catch (Exception e) {
-            LOG.warn("Error closing active node pools", e);
+            LOG.warn("Error closing node pools", e);
+        }
+    }
+
+    private void shutdownProbeExecutor() {
+        try {
+            probeExecutor.shutdownNow();
+        } catch (Exception e) {
+            LOG.warn("Error closing status probe executor", e);
+        }
+    }
+
+    private void shutdownWarmUpExecutor() {
+        try {
+            warmUpExecutor.shutdownNow();
+        } catch (Exception e) {
+            LOG.warn("Error closing warm up executor", e);
         }
     }
 
@@ -396,6 +1072,11 @@ public class GaleraClient extends AbstractGaleraDataSource {
         private int maxConnectionsPerHost;
         private int minConnectionsIdlePerHost = 1;
         private long discoverPeriod;
+        private long discoverTimeout;
+        private StatusProbeMode statusProbeMode = StatusProbeMode.SHOW_STATUS;
+        private long forcedDiscoveryTimeout;
+        private StatusChannel statusChannel = StatusChannel.POOL;
+        private long drainGracePeriod;
         private long connectTimeout;
         private long connectionTimeout;
         private long readTimeout;
@@ -409,8 +1090,23 @@ public class GaleraClient extends AbstractGaleraDataSource {
         private ConsistencyLevel consistencyLevel;
         private Optional<GaleraClientListener> listener = Optional.absent();
         private Optional<ElectionNodePolicy> nodeSelectionPolicy = Optional.absent();
+        private Optional<ElectionNodePolicy> readNodeSelectionPolicy = Optional.absent();
+        private Optional<ElectionNodePolicy> writeNodeSelectionPolicy = Optional.absent();
+        private int readMaxConnectionsPerHost;
+        private int readMinConnectionsIdlePerHost;
+        private boolean lazyConnections;
+        private boolean statementRouting;
+        private Map<ConsistencyLevel, Integer> consistencyLevelPools = new EnumMap<ConsistencyLevel, Integer>(ConsistencyLevel.class);
+        private long readMaxSeqnoLag = -1;
+        private long readMaxRecvQueue = -1;
         private Optional<String> poolName = Optional.absent();
         private long leakDetectionThreshold = 0;
+        private boolean warmUp;
+        private boolean flowControlAware = false;
+        private long flowControlRecvQueueHigh;
+        private long flowControlRecvQueueLow = -1;
+        private int localSegment = -1;
+        private Map<String, Integer> nodeSegments = Collections.emptyMap();
 
         public GaleraClient build() {
             Preconditions.checkState(seeds != null, "Seeds are required");
@@ -418,19 +1114,34 @@ public class GaleraClient extends AbstractGaleraDataSource {
 
             LOG.info("Creating galera client...");
 
-            ClientSettings clientSettings =
-                    new ClientSettings(
-                            seeds(),
-                            retriesToGetConnection,
-                            listener.or(new GaleraClientLoggingListener()),
-                            nodeSelectionPolicy.or(new RoundRobinPolicy()),
-                            testMode);
+            ClientSettings clientSettings = ClientSettings.newBuilder()
+                    .seeds(seeds())
+                    .retriesToGetConnection(retriesToGetConnection)
+                    .galeraClientListener(listener.or(new GaleraClientLoggingListener()))
+                    .defaultNodeSelectionPolicy(decorate(nodeSelectionPolicy.or(new RoundRobinPolicy())))
+                    .readNodeSelectionPolicy(readPolicy())
+                    .writeNodeSelectionPolicy(writePolicy())
+                    .testMode(testMode)
+                    .lazyConnections(lazyConnections)
+                    .statementRouting(statementRouting)
+                    .build();
 
             if (LOG.isDebugEnabled()) {
                 LOG.debug("Creating galera client with settings: {}", clientSettings);
             }
 
-            DiscoverSettings discoverSettings = new DiscoverSettings(discoverPeriod, ignoreDonor);
+            DiscoverSettings discoverSettings = DiscoverSettings.newBuilder()
+                    .discoverPeriod(discoverPeriod)
+                    .ignoreDonor(ignoreDonor)
+                    .discoverTimeout(discoverTimeout())
+                    .statusProbeMode(statusProbeMode)
+                    .forcedDiscoveryTimeout(forcedDiscoveryTimeout)
+                    .statusChannel(statusChannel)
+                    .drainGracePeriod(drainGracePeriod)
+                    .flowControlRecvQueueHigh(flowControlRecvQueueHigh)
+                    .flowControlRecvQueueLow(flowControlRecvQueueLow)
+                    .discoverSegments(localSegment >= 0)
+                    .build();
 
             if (LOG.isDebugEnabled()) {
                 LOG.debug("Creating galera client with discovery settings: {}", discoverSettings);
@@ -458,8 +1169,50 @@ public class GaleraClient extends AbstractGaleraDataSource {
                     .metricsEnabled(metricsEnabled)
                     .poolName(poolName)
                     .leakDetectionThreshold(leakDetectionThreshold)
+                    .warmUp(warmUp)
                     .build();
 
+            PoolSettings readPoolSettings = null;
+            if (readMaxConnectionsPerHost > 0) {
+                readPoolSettings = PoolSettings.newBuilder()
+                        .maxConnectionsPerHost(readMaxConnectionsPerHost)
+                        .minConnectionsIdlePerHost(readMinConnectionsIdlePerHost > 0 ? readMinConnectionsIdlePerHost : minConnectionsIdlePerHost)
+                        .connectTimeout(connectTimeout)
+                        .connectionTimeout(connectionTimeout)
+                        .readTimeout(readTimeout)
+                        .idleTimeout(idleTimeout)
+                        .autocommit(autocommit)
+                        .readOnly()
+                        .isolationLevel(isolationLevel)
+                        .consistencyLevel(consistencyLevel)
+                        .metricsEnabled(metricsEnabled)
+                        .poolName(poolName)
+                        .leakDetectionThreshold(leakDetectionThreshold)
+                        .warmUp(warmUp)
+                        .build();
+            }
+
+            List<PoolSettings> consistencyPoolSettings = new ArrayList<PoolSettings>();
+            for (Map.Entry<ConsistencyLevel, Integer> consistencyLevelPool : consistencyLevelPools.entrySet()) {
+                consistencyPoolSettings.add(PoolSettings.newBuilder()
+                                                    .maxConnectionsPerHost(consistencyLevelPool.getValue())
+                                                    .minConnectionsIdlePerHost(Math.min(minConnectionsIdlePerHost, consistencyLevelPool.getValue()))
+                                                    .connectTimeout(connectTimeout)
+                                                    .connectionTimeout(connectionTimeout)
+                                                    .readTimeout(readTimeout)
+                                                    .idleTimeout(idleTimeout)
+                                                    .autocommit(autocommit)
+                                                    .readOnly(readOnly)
+                                                    .isolationLevel(isolationLevel)
+                                                    .consistencyLevel(consistencyLevelPool.getKey())
+                                                    .initSql(ConsistencyLevelSupport.setSessionSql(consistencyLevelPool.getKey()))
+                                                    .metricsEnabled(metricsEnabled)
+                                                    .poolName(poolName)
+                                                    .leakDetectionThreshold(leakDetectionThreshold)
+                                                    .warmUp(warmUp)
+                                                    .build());
+            }
+
             PoolSettings internalPoolSettings = PoolSettings.newBuilder()
                     .maxConnectionsPerHost(8)
                     .minConnectionsIdlePerHost(4)
@@ -476,7 +1229,38 @@ public class GaleraClient extends AbstractGaleraDataSource {
                     .build();
 
 
-            return new GaleraClient(clientSettings, discoverSettings, galeraDB, poolSettings, internalPoolSettings);
+            return new GaleraClient(clientSettings, discoverSettings, galeraDB, poolSettings, readPoolSettings, consistencyPoolSettings,
+                                    internalPoolSettings);
+        }
+
+        private ElectionNodePolicy readPolicy() {
+            ElectionNodePolicy policy = decorate(readNodeSelectionPolicy.or(new LeastInFlightConnectionsPolicy()));
+            if (readMaxSeqnoLag >= 0 || readMaxRecvQueue >= 0) {
+                policy = new LagAwarePolicy(policy, readMaxSeqnoLag, readMaxRecvQueue);
+            }
+            return policy;
+        }
+
+        private ElectionNodePolicy writePolicy() {
+            // Writes stay on the elected writer, the one WriterChangeListener reports, even while it is throttled or on another segment:
+            // each segment electing its own writer would bring certification conflicts back
+            return writeNodeSelectionPolicy.or(new SingleWriterPolicy());
+        }
+
+        private ElectionNodePolicy decorate(ElectionNodePolicy policy) {
+            if (localSegment >= 0) {
+                policy = new SegmentAwarePolicy(policy, localSegment, nodeSegments);
+            }
+            // Throttled nodes are skipped first, so we spill over to other segments when every local node is throttled
+            return flowControlAware ? new FlowControlAwarePolicy(policy) : policy;
+        }
+
+        private long discoverTimeout() {
+            if (discoverTimeout > 0) {
+                return discoverTimeout;
+            }
+            // A probe borrows a status connection and runs a query, so it can not take longer than that unless the node hangs
+            return connectionTimeout + readTimeout;
         }
 
         private List<String> seeds() {
@@ -569,6 +1353,85 @@ public class GaleraClient extends AbstractGaleraDataSource {
             return this;
         }
 
+        /**
+         * @param readNodeSelectionPolicy Policy used by getReadConnection(). Default: LeastInFlightConnectionsPolicy
+         * @return Builder instance
+         */
+        public Builder readNodeSelectionPolicy(ElectionNodePolicy readNodeSelectionPolicy) {
+            this.readNodeSelectionPolicy = Optional.fromNullable(readNodeSelectionPolicy);
+            return this;
+        }
+
+        /**
+         * @param writeNodeSelectionPolicy Policy used by getWriteConnection(). Default: SingleWriterPolicy
+         * @return Builder instance
+         */
+        public Builder writeNodeSelectionPolicy(ElectionNodePolicy writeNodeSelectionPolicy) {
+            this.writeNodeSelectionPolicy = Optional.fromNullable(writeNodeSelectionPolicy);
+            return this;
+        }
+
+        /**
+         * @param readMaxConnectionsPerHost When greater than 0, each node keeps a separate read only pool of this size for getReadConnection().
+         *                                  Default: 0 (read connections come from the same pool)
+         * @return Builder instance
+         */
+        public Builder readMaxConnectionsPerHost(int readMaxConnectionsPerHost) {
+            this.readMaxConnectionsPerHost = readMaxConnectionsPerHost;
+            return this;
+        }
+
+        /**
+         * @param readMinConnectionsIdlePerHost Min idle connections of the read pool. Default: minConnectionsIdlePerHost
+         * @return Builder instance
+         */
+        public Builder readMinConnectionsIdlePerHost(int readMinConnectionsIdlePerHost) {
+            this.readMinConnectionsIdlePerHost = readMinConnectionsIdlePerHost;
+            return this;
+        }
+
+        /**
+         * @param consistencyLevel      consistency level whose connections are taken from a separate pool on each node. Its connections are set
+         *                              to this level once, when they are opened, so getConnection(consistencyLevel) does not issue SET
+         *                              statements
+         * @param maxConnectionsPerHost max connections of that pool
+         * @return Builder instance
+         */
+        public Builder consistencyLevelPool(ConsistencyLevel consistencyLevel, int maxConnectionsPerHost) {
+            this.consistencyLevelPools.put(consistencyLevel, maxConnectionsPerHost);
+            return this;
+        }
+
+        /**
+         * @param consistencyLevelPools max connections of the pool kept on each node for each consistency level, see
+         *                              {@link #consistencyLevelPool(ConsistencyLevel, int)}
+         * @return Builder instance
+         */
+        public Builder consistencyLevelPools(Map<ConsistencyLevel, Integer> consistencyLevelPools) {
+            this.consistencyLevelPools.putAll(consistencyLevelPools);
+            return this;
+        }
+
+        /**
+         * @param readMaxSeqnoLag getReadConnection() skips nodes that were more than this many write sets behind the most up to date node on
+         *                        last discovery, unless every node is. Default: -1 (disabled)
+         * @return Builder instance
+         */
+        public Builder readMaxSeqnoLag(long readMaxSeqnoLag) {
+            this.readMaxSeqnoLag = readMaxSeqnoLag;
+            return this;
+        }
+
+        /**
+         * @param readMaxRecvQueue getReadConnection() skips nodes whose wsrep_local_recv_queue was longer than this on last discovery, unless
+         *                         every node is. Default: -1 (disabled)
+         * @return Builder instance
+         */
+        public Builder readMaxRecvQueue(long readMaxRecvQueue) {
+            this.readMaxRecvQueue = readMaxRecvQueue;
+            return this;
+        }
+
         public Builder autocommit(boolean autocommit) {
             this.autocommit = autocommit;
             return this;
@@ -604,6 +1467,67 @@ public class GaleraClient extends AbstractGaleraDataSource {
             return discoverPeriod(timeUnit.toMillis(discoverPeriod));
         }
 
+        /**
+         * @param discoverTimeout Deadline for each node status probe. By default it is connectionTimeout + readTimeout.
+         * @return Builder instance
+         */
+        public Builder discoverTimeout(long discoverTimeout) {
+            this.discoverTimeout = discoverTimeout;
+            return this;
+        }
+
+        public Builder discoverTimeout(long discoverTimeout, @Nonnull TimeUnit timeUnit) {
+            return discoverTimeout(timeUnit.toMillis(discoverTimeout));
+        }
+
+        /**
+         * @param statusProbeMode {@link StatusProbeMode#TARGETED} fetches only the needed variables in a single round trip. Default: SHOW_STATUS
+         * @return Builder instance
+         */
+        public Builder statusProbeMode(StatusProbeMode statusProbeMode) {
+            this.statusProbeMode = statusProbeMode;
+            return this;
+        }
+
+        /**
+         * @param forcedDiscoveryTimeout How long a request that failed to get a connection waits for the discovery it triggers, before
+         *                               rethrowing. Discovery always runs in background, by default (0) the request fails fast.
+         * @return Builder instance
+         */
+        public Builder forcedDiscoveryTimeout(long forcedDiscoveryTimeout) {
+            this.forcedDiscoveryTimeout = forcedDiscoveryTimeout;
+            return this;
+        }
+
+        public Builder forcedDiscoveryTimeout(long forcedDiscoveryTimeout, @Nonnull TimeUnit timeUnit) {
+            return forcedDiscoveryTimeout(timeUnit.toMillis(forcedDiscoveryTimeout));
+        }
+
+        /**
+         * @param statusChannel {@link StatusChannel#DEDICATED_CONNECTION} keeps a single status connection per node instead of a status pool.
+         *                      Default: POOL
+         * @return Builder instance
+         */
+        public Builder statusChannel(StatusChannel statusChannel) {
+            this.statusChannel = statusChannel;
+            return this;
+        }
+
+        /**
+         * @param drainGracePeriod When a node is non Primary or not Synced, it stops getting new borrows but its pool is kept this long, so
+         *                         in flight connections finish and a node that quickly returns to Synced is usable right away.
+         *                         Default: 0 (the pool is closed immediately)
+         * @return Builder instance
+         */
+        public Builder drainGracePeriod(long drainGracePeriod) {
+            this.drainGracePeriod = drainGracePeriod;
+            return this;
+        }
+
+        public Builder drainGracePeriod(long drainGracePeriod, @Nonnull TimeUnit timeUnit) {
+            return drainGracePeriod(timeUnit.toMillis(drainGracePeriod));
+        }
+
         public Builder readTimeout(long timeout) {
             this.readTimeout = timeout;
             return this;
@@ -641,5 +1565,86 @@ public class GaleraClient extends AbstractGaleraDataSource {
             this.leakDetectionThreshold = leakDetectionThreshold;
             return this;
         }
+
+        /**
+         * @param lazyConnections When true, getConnection(), getReadConnection() and getWriteConnection() return a connection that chooses a
+         *                        node and borrows from its pool only when the first statement runs, so a connection held while doing
+         *                        other work (or never used) does not take one from the pool. Default: false
+         * @return Builder instance
+         */
+        public Builder lazyConnections(boolean lazyConnections) {
+            this.lazyConnections = lazyConnections;
+            return this;
+        }
+
+        /**
+         * @param statementRouting When true, getConnection() returns a lazy connection that routes each statement: plain SELECTs run in
+         *                         autocommit go to a node chosen by the read node selection policy, writes, transactions and statements
+         *                         created without SQL go to the writer node. Once a statement ran on the writer, the following ones stay
+         *                         there. Default: false
+         * @return Builder instance
+         */
+        public Builder statementRouting(boolean statementRouting) {
+            this.statementRouting = statementRouting;
+            return this;
+        }
+
+        /**
+         * @param warmUp When true a node pool is filled up to minConnectionsIdlePerHost before the node is activated. Pools are warmed up
+         *               off the discovery thread and a node that is not warmed up within discoverTimeout is marked as down. Default: false
+         * @return Builder instance
+         */
+        public Builder warmUp(boolean warmUp) {
+            this.warmUp = warmUp;
+            return this;
+        }
+
+        /**
+         * @param flowControlAware When true, the node selection and read policies skip nodes that are triggering flow control, unless every
+         *                         active node is. The write policy is left as is, so writes stay on the elected writer. Default: false
+         * @return Builder instance
+         */
+        public Builder flowControlAware(boolean flowControlAware) {
+            this.flowControlAware = flowControlAware;
+            return this;
+        }
+
+        /**
+         * @param flowControlRecvQueueHigh A node is considered to trigger flow control once its recv queue reaches this length. Default: 16
+         * @return Builder instance
+         */
+        public Builder flowControlRecvQueueHigh(long flowControlRecvQueueHigh) {
+            this.flowControlRecvQueueHigh = flowControlRecvQueueHigh;
+            return this;
+        }
+
+        /**
+         * @param flowControlRecvQueueLow A node triggering flow control is back once its recv queue drains to this length. Default: 8
+         * @return Builder instance
+         */
+        public Builder flowControlRecvQueueLow(long flowControlRecvQueueLow) {
+            this.flowControlRecvQueueLow = flowControlRecvQueueLow;
+            return this;
+        }
+
+        /**
+         * @param localSegment gmcast.segment of this client. When set, the node selection and read policies prefer nodes on this segment and
+         *                     only spill over to other segments when no local node is active or every local one is saturated. The write
+         *                     policy is left as is, so every client writes on the same elected writer. Default: -1 (disabled)
+         * @return Builder instance
+         */
+        public Builder localSegment(int localSegment) {
+            this.localSegment = localSegment;
+            return this;
+        }
+
+        /**
+         * @param nodeSegments gmcast.segment per host:port. Nodes not listed here get the segment they report on discovery.
+         * @return Builder instance
+         */
+        public Builder nodeSegments(Map<String, Integer> nodeSegments) {
+            this.nodeSegments = (nodeSegments != null) ? nodeSegments : Collections.<String, Integer>emptyMap();
+            return this;
+        }
     }
 }
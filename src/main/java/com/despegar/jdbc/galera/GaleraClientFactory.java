@@ -3,8 +3,13 @@ package com.despegar.jdbc.galera;
 import com.despegar.jdbc.galera.consistency.ConsistencyLevel;
 import com.despegar.jdbc.galera.listener.GaleraClientListener;
 import com.despegar.jdbc.galera.policies.ElectionNodePolicy;
+import com.despegar.jdbc.galera.settings.StatusChannel;
+import com.despegar.jdbc.galera.settings.StatusProbeMode;
 import com.google.common.base.Optional;
 
+import java.util.Collections;
+import java.util.Map;
+
 public class GaleraClientFactory {
     private boolean testMode;
     private String database;
@@ -31,6 +36,26 @@ public class GaleraClientFactory {
     private boolean metricsEnabled;
     private Optional<String> poolName = Optional.absent();
     private long leakDetectionThreshold = 0;
+    private long discoverTimeout;
+    private StatusProbeMode statusProbeMode = StatusProbeMode.SHOW_STATUS;
+    private long forcedDiscoveryTimeout;
+    private StatusChannel statusChannel = StatusChannel.POOL;
+    private boolean warmUp;
+    private long drainGracePeriod;
+    private boolean flowControlAware;
+    private long flowControlRecvQueueHigh;
+    private long flowControlRecvQueueLow = -1;
+    private int localSegment = -1;
+    private Map<String, Integer> nodeSegments;
+    private ElectionNodePolicy readNodeSelectionPolicy;
+    private ElectionNodePolicy writeNodeSelectionPolicy;
+    private int readMaxConnectionsPerHost;
+    private int readMinConnectionsIdlePerHost;
+    private long readMaxSeqnoLag = -1;
+    private long readMaxRecvQueue = -1;
+    private Map<ConsistencyLevel, Integer> consistencyLevelPools = Collections.emptyMap();
+    private boolean lazyConnections;
+    private boolean statementRouting;
 
     public GaleraClient getInstance() {
         return new GaleraClient.Builder().jdbcUrlPrefix(jdbcUrlPrefix).jdbcUrlSeparator(jdbcUrlSeparator).database(database).user(user).password(password)
@@ -39,7 +64,15 @@ public class GaleraClientFactory {
                 .connectionTimeout(connectionTimeout).connectTimeout(connectTimeout).readTimeout(readTimeout).idleTimeout(idleTimeout).ignoreDonor(ignoreDonor)
                 .retriesToGetConnection(retriesToGetConnection).autocommit(autocommit).readOnly(readOnly).isolationLevel(isolationLevel)
                 .consistencyLevel(consistencyLevel).listener(listener).nodeSelectionPolicy(nodeSelectionPolicy).testMode(testMode).metricsEnabled(
-                        metricsEnabled).leakDetectionThreshold(leakDetectionThreshold).build();
+                        metricsEnabled).leakDetectionThreshold(leakDetectionThreshold).discoverTimeout(discoverTimeout).statusProbeMode(statusProbeMode)
+                .forcedDiscoveryTimeout(forcedDiscoveryTimeout).statusChannel(statusChannel).warmUp(warmUp)
+                .drainGracePeriod(drainGracePeriod).flowControlAware(flowControlAware).flowControlRecvQueueHigh(flowControlRecvQueueHigh)
+                .flowControlRecvQueueLow(flowControlRecvQueueLow).localSegment(localSegment).nodeSegments(nodeSegments)
+                .readNodeSelectionPolicy(readNodeSelectionPolicy).writeNodeSelectionPolicy(writeNodeSelectionPolicy)
+                .readMaxConnectionsPerHost(readMaxConnectionsPerHost).readMinConnectionsIdlePerHost(readMinConnectionsIdlePerHost)
+                .readMaxSeqnoLag(readMaxSeqnoLag).readMaxRecvQueue(readMaxRecvQueue)
+                .consistencyLevelPools(consistencyLevelPools).lazyConnections(lazyConnections)
+                .statementRouting(statementRouting).build();
     }
 
     public void setDatabase(String database) {
@@ -142,5 +175,84 @@ public class GaleraClientFactory {
         this.leakDetectionThreshold = leakDetectionThreshold;
     }
 
-}
+    public void setDiscoverTimeout(long discoverTimeout) {
+        this.discoverTimeout = discoverTimeout;
+    }
+
+    public void setStatusProbeMode(StatusProbeMode statusProbeMode) {
+        this.statusProbeMode = statusProbeMode;
+    }
+
+    public void setForcedDiscoveryTimeout(long forcedDiscoveryTimeout) {
+        this.forcedDiscoveryTimeout = forcedDiscoveryTimeout;
+    }
+
+    public void setStatusChannel(StatusChannel statusChannel) {
+        this.statusChannel = statusChannel;
+    }
+
+    public void setWarmUp(boolean warmUp) {
+        this.warmUp = warmUp;
+    }
+
+    public void setDrainGracePeriod(long drainGracePeriod) {
+        this.drainGracePeriod = drainGracePeriod;
+    }
+
+    public void setFlowControlAware(boolean flowControlAware) {
+        this.flowControlAware = flowControlAware;
+    }
+
+    public void setFlowControlRecvQueueHigh(long flowControlRecvQueueHigh) {
+        this.flowControlRecvQueueHigh = flowControlRecvQueueHigh;
+    }
+
+    public void setFlowControlRecvQueueLow(long flowControlRecvQueueLow) {
+        this.flowControlRecvQueueLow = flowControlRecvQueueLow;
+    }
+
+    public void setLocalSegment(int localSegment) {
+        this.localSegment = localSegment;
+    }
 
+    public void setNodeSegments(Map<String, Integer> nodeSegments) {
+        this.nodeSegments = nodeSegments;
+    }
+
+    public void setReadNodeSelectionPolicy(ElectionNodePolicy readNodeSelectionPolicy) {
+        this.readNodeSelectionPolicy = readNodeSelectionPolicy;
+    }
+
+    public void setWriteNodeSelectionPolicy(ElectionNodePolicy writeNodeSelectionPolicy) {
+        this.writeNodeSelectionPolicy = writeNodeSelectionPolicy;
+    }
+
+    public void setReadMaxConnectionsPerHost(int readMaxConnectionsPerHost) {
+        this.readMaxConnectionsPerHost = readMaxConnectionsPerHost;
+    }
+
+    public void setReadMinConnectionsIdlePerHost(int readMinConnectionsIdlePerHost) {
+        this.readMinConnectionsIdlePerHost = readMinConnectionsIdlePerHost;
+    }
+
+    public void setReadMaxSeqnoLag(long readMaxSeqnoLag) {
+        this.readMaxSeqnoLag = readMaxSeqnoLag;
+    }
+
+    public void setReadMaxRecvQueue(long readMaxRecvQueue) {
+        this.readMaxRecvQueue = readMaxRecvQueue;
+    }
+
+    public void setLazyConnections(boolean lazyConnections) {
+        this.lazyConnections = lazyConnections;
+    }
+
+    public void setStatementRouting(boolean statementRouting) {
+        this.statementRouting = statementRouting;
+    }
+
+    public void setConsistencyLevelPools(Map<ConsistencyLevel, Integer> consistencyLevelPools) {
+        this.consistencyLevelPools = consistencyLevelPools;
+    }
+
+}
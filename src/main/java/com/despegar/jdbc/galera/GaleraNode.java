@@ -3,9 +3,18 @@ package com.despegar.jdbc.galera;
 import com.despegar.jdbc.galera.consistency.ConsistencyLevel;
 import com.despegar.jdbc.galera.consistency.ConsistencyLevelSupport;
 import com.despegar.jdbc.galera.consistency.GaleraProxyConnection;
+import com.despegar.jdbc.galera.metrics.PeakEwma;
+import com.despegar.jdbc.galera.metrics.PoolStatsTrackerFactory;
+import com.despegar.jdbc.galera.metrics.StripedCounter;
+import com.despegar.jdbc.galera.settings.DiscoverSettings;
 import com.despegar.jdbc.galera.settings.PoolSettings;
+import com.despegar.jdbc.galera.settings.StatusChannel;
+import com.despegar.jdbc.galera.settings.StatusProbeMode;
+import com.google.common.base.Joiner;
+import com.google.common.base.Throwables;
 import com.zaxxer.hikari.HikariConfig;
 import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.metrics.dropwizard.CodahaleMetricsTrackerFactory;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -14,40 +23,127 @@ import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.EnumMap;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 
+import static com.despegar.jdbc.galera.utils.PoolNameHelper.getFullConsistencyPoolName;
 import static com.despegar.jdbc.galera.utils.PoolNameHelper.getFullPoolName;
+import static com.despegar.jdbc.galera.utils.PoolNameHelper.getFullReadPoolName;
 import static com.despegar.jdbc.galera.utils.PoolNameHelper.getFullStatusPoolName;
 
-public class GaleraNode {
+public class GaleraNode implements GaleraNodeView {
     private static final Logger LOG = LoggerFactory.getLogger(GaleraNode.class);
 
     private static final String QUERY_STATUS = "SHOW STATUS where variable_name LIKE 'wsrep_%' or variable_name like 'Threads_connected'; ";
     private static final String QUERY_GLOBAL_VARIABLES = "SHOW GLOBAL VARIABLES WHERE variable_name in ('wsrep_sync_wait', 'wsrep_causal_reads');";
+    private static final String QUERY_GLOBAL_VARIABLES_WITH_SEGMENT =
+            "SHOW GLOBAL VARIABLES WHERE variable_name in ('wsrep_sync_wait', 'wsrep_causal_reads', 'wsrep_provider_options');";
+    private static final String QUERY_TARGETED_STATUS = targetedStatusQuery(GaleraStatus.GLOBAL_VARIABLES);
+    private static final String QUERY_TARGETED_STATUS_WITH_SEGMENT = targetedStatusQuery(GaleraStatus.GLOBAL_VARIABLES_WITH_SEGMENT);
+
+    private static final long LATENCY_DECAY_NANOS = TimeUnit.SECONDS.toNanos(10);
 
     public final String node;
     private final GaleraDB galeraDB;
     private final PoolSettings poolSettings;
+    private final PoolSettings readPoolSettings;
+    private final StatusProbeMode statusProbeMode;
+    private final String[] statusQueries;
     private HikariDataSource statusDataSource;
+    private StatusConnection statusConnection;
     private volatile HikariDataSource dataSource;
+    private volatile PoolStatsTrackerFactory poolStats;
+    private volatile HikariDataSource readDataSource;
+    private volatile PoolStatsTrackerFactory readPoolStats;
+    private final List<PoolSettings> consistencyPoolSettings;
+    private volatile Map<ConsistencyLevel, HikariDataSource> consistencyDataSources = Collections.emptyMap();
+    private final int maxConnections;
+    private volatile long drainingSince;
+    private volatile boolean flowControlThrottled;
+    private long lastFlowControlSent = -1;
+    private volatile long seqnoLag = -1;
+    private final StripedCounter inFlightConnections = new StripedCounter();
+    private final PeakEwma acquireLatency = new PeakEwma(LATENCY_DECAY_NANOS);
+    private final PeakEwma usageLatency = new PeakEwma(LATENCY_DECAY_NANOS);
     private volatile GaleraStatus status;
     private final boolean testMode;
 
     public GaleraNode(String node, GaleraDB galeraDB, PoolSettings poolSettings, PoolSettings internalPoolSettings, boolean testMode) {
+        this(node, galeraDB, poolSettings, internalPoolSettings, DiscoverSettings.newBuilder().build(), testMode);
+    }
+
+    public GaleraNode(String node, GaleraDB galeraDB, PoolSettings poolSettings, PoolSettings internalPoolSettings, DiscoverSettings discoverSettings,
+                      boolean testMode) {
+        this(node, galeraDB, poolSettings, null, internalPoolSettings, discoverSettings, testMode);
+    }
+
+    /**
+     * @param readPoolSettings settings of a separate pool for read connections, or null to take read connections from the same pool
+     */
+    public GaleraNode(String node, GaleraDB galeraDB, PoolSettings poolSettings, PoolSettings readPoolSettings, PoolSettings internalPoolSettings,
+                      DiscoverSettings discoverSettings, boolean testMode) {
+        this(node, galeraDB, poolSettings, readPoolSettings, Collections.<PoolSettings>emptyList(), internalPoolSettings, discoverSettings,
+             testMode);
+    }
+
+    /**
+     * @param consistencyPoolSettings settings of the pools whose connections are pinned to their consistency level, one per level
+     */
+    public GaleraNode(String node, GaleraDB galeraDB, PoolSettings poolSettings, PoolSettings readPoolSettings,
+                      List<PoolSettings> consistencyPoolSettings, PoolSettings internalPoolSettings, DiscoverSettings discoverSettings,
+                      boolean testMode) {
         LOG.info("Creating galera node {}", node);
         this.node = node;
         this.galeraDB = galeraDB;
         this.poolSettings = poolSettings;
+        this.readPoolSettings = readPoolSettings;
+        this.consistencyPoolSettings = consistencyPoolSettings;
+        int poolsMaxConnections = poolSettings.maxConnectionsPerHost + ((readPoolSettings != null) ? readPoolSettings.maxConnectionsPerHost : 0);
+        for (PoolSettings settings : consistencyPoolSettings) {
+            poolsMaxConnections += settings.maxConnectionsPerHost;
+        }
+        this.maxConnections = poolsMaxConnections;
+        this.statusProbeMode = discoverSettings.statusProbeMode;
+        // wsrep_provider_options is a long string, we only fetch it when routing needs node segments
+        if (statusProbeMode == StatusProbeMode.TARGETED) {
+            statusQueries = new String[] { discoverSettings.discoverSegments ? QUERY_TARGETED_STATUS_WITH_SEGMENT : QUERY_TARGETED_STATUS };
+        } else {
+            statusQueries = new String[] { QUERY_STATUS, discoverSettings.discoverSegments ? QUERY_GLOBAL_VARIABLES_WITH_SEGMENT : QUERY_GLOBAL_VARIABLES };
+        }
         this.testMode = testMode;
 
         if (!testMode) {
-            HikariConfig hikariConfig = newHikariConfig(getFullStatusPoolName(poolSettings.poolName, node), node, galeraDB, internalPoolSettings);
-            statusDataSource = new HikariDataSource(hikariConfig);
+            if (discoverSettings.statusChannel == StatusChannel.DEDICATED_CONNECTION) {
+                statusConnection = new StatusConnection(node, galeraDB, internalPoolSettings);
+            } else {
+                HikariConfig hikariConfig = newHikariConfig(getFullStatusPoolName(poolSettings.poolName, node), node, galeraDB, internalPoolSettings);
+                statusDataSource = new HikariDataSource(hikariConfig);
+            }
         }
     }
 
     private HikariConfig newHikariConfig(String poolName, String node, GaleraDB galeraDB, PoolSettings poolSettings) {
+        return newHikariConfig(poolName, node, galeraDB, poolSettings, null);
+    }
+
+    /**
+     * @param poolStats when not null, it keeps the pool stats. Hikari takes either a metric registry or a metrics tracker factory, so pool
+     *                  metrics are then reported through it.
+     */
+    private HikariConfig newHikariConfig(String poolName, String node, GaleraDB galeraDB, PoolSettings poolSettings,
+                                         PoolStatsTrackerFactory poolStats) {
         HikariConfig config = new HikariConfig();
         config.setPoolName(poolName);
         config.setJdbcUrl(galeraDB.jdbcUrlPrefix + node + galeraDB.jdbcUrlSeparator + galeraDB.database);
@@ -70,46 +166,90 @@ public class GaleraNode {
         config.addDataSourceProperty("connectTimeout", String.valueOf(poolSettings.connectTimeout));
         config.addDataSourceProperty("socketTimeout", String.valueOf(poolSettings.readTimeout));
 
-        if (!this.testMode && poolSettings.metricsEnabled) {
+        if (poolSettings.initSql != null) {
+            config.setConnectionInitSql(poolSettings.initSql);
+        }
+
+        if (poolStats != null) {
+            config.setMetricsTrackerFactory(poolStats);
+        } else if (metricsEnabled(poolSettings)) {
             config.setMetricRegistry(GaleraClient.metricRegistry);
         }
 
         return config;
     }
 
-    public void refreshStatus() throws Exception {
-        Connection connection = statusDataSource.getConnection();
+    private boolean metricsEnabled(PoolSettings poolSettings) {
+        return !this.testMode && poolSettings.metricsEnabled;
+    }
 
-        try {
-            Map<String, String> statusMap = queryStatus(connection, QUERY_STATUS);
-            Map<String, String> globalVariablesMap = queryStatus(connection, QUERY_GLOBAL_VARIABLES);
-            statusMap.putAll(globalVariablesMap);
+    @Override
+    public String name() {
+        return node;
+    }
 
-            status = new GaleraStatus(statusMap);
-        } finally {
-            tryClose(connection);
+    public void refreshStatus() throws Exception {
+        Map<String, String> statusMap;
+        String[] queries = statusQueries;
+        if (statusProbeMode == StatusProbeMode.TARGETED) {
+            // information_schema returns upper case names
+            statusMap = new TreeMap<String, String>(String.CASE_INSENSITIVE_ORDER);
+        } else {
+            statusMap = new HashMap<String, String>();
+        }
+
+        if (statusConnection != null) {
+            for (String query : queries) {
+                statusConnection.query(query, statusMap);
+            }
+        } else {
+            Connection connection = statusDataSource.getConnection();
+            try {
+                for (String query : queries) {
+                    queryStatus(connection, query, statusMap);
+                }
+            } finally {
+                tryClose(connection);
+            }
         }
+
+        status = new GaleraStatus(statusMap);
     }
 
-    private Map<String, String> queryStatus(Connection connection, String query) throws Exception {
+    /**
+     * Status connections are pooled with server prepared statements cache enabled, so each query is prepared only once per connection.
+     */
+    private void queryStatus(Connection connection, String query, Map<String, String> statusMap) throws Exception {
         PreparedStatement preparedStatement = null;
         ResultSet resultSet = null;
         try {
             preparedStatement = connection.prepareStatement(query);
             resultSet = preparedStatement.executeQuery();
-            Map<String, String> statusMap = new HashMap<String, String>();
             while (resultSet.next()) {
                 String statusKey = resultSet.getString(1);
                 String statusValue = resultSet.getString(2);
                 statusMap.put(statusKey, statusValue);
             }
-            return statusMap;
         } finally {
             tryClose(resultSet);
             tryClose(preparedStatement);
         }
     }
 
+    private static String targetedStatusQuery(List<String> globalVariables) {
+        return "SELECT VARIABLE_NAME, VARIABLE_VALUE FROM information_schema.GLOBAL_STATUS WHERE VARIABLE_NAME IN (" + inList(GaleraStatus.STATUS_VARIABLES) + ")"
+                + " UNION ALL "
+                + "SELECT VARIABLE_NAME, VARIABLE_VALUE FROM information_schema.GLOBAL_VARIABLES WHERE VARIABLE_NAME IN (" + inList(globalVariables) + ")";
+    }
+
+    private static String inList(Collection<String> variables) {
+        List<String> quoted = new ArrayList<String>(variables.size());
+        for (String variable : variables) {
+            quoted.add("'" + variable.toUpperCase() + "'");
+        }
+        return Joiner.on(", ").join(quoted);
+    }
+
     public GaleraStatus status() throws Exception {
         if (status == null) {
             refreshStatus();
@@ -117,6 +257,14 @@ public class GaleraNode {
         return status;
     }
 
+    /**
+     * @return status as of last discovery, or null if it was not discovered yet. Unlike {@link #status()} it never queries the node.
+     */
+    @Override
+    public GaleraStatus lastStatus() {
+        return status;
+    }
+
     private void tryClose(AutoCloseable connection) throws Exception {
         if (connection != null) {
             connection.close();
@@ -126,25 +274,261 @@ public class GaleraNode {
     public void shutdown() {
         onDown();
         if (statusDataSource != null) { statusDataSource.close(); }
+        if (statusConnection != null) { statusConnection.close(); }
     }
 
     public Connection getConnection() throws SQLException {
-        Connection conn = dataSource.getConnection();
+        return getConnection(dataSource, poolSettings);
+    }
+
+    public Connection getConnection(ConsistencyLevel consistencyLevel) throws SQLException {
+        HikariDataSource consistencyPool = consistencyDataSources.get(consistencyLevel);
+        if (consistencyPool != null) {
+            return borrow(consistencyPool);
+        }
+        return getConnection(dataSource, consistencyLevel);
+    }
+
+    /**
+     * @return a connection from the read pool of this node, or from its only pool if reads are not split
+     */
+    public Connection getReadConnection() throws SQLException {
+        HikariDataSource readPool = readDataSource;
+        return (readPool != null) ? getConnection(readPool, readPoolSettings) : getConnection();
+    }
 
-        if (poolSettings.consistencyLevel != null) {
-            LOG.debug("Setting connection level to default configured on client: {} ", poolSettings.consistencyLevel.toString());
-            ConsistencyLevelSupport.set(conn, poolSettings.consistencyLevel.value, status.supportsSyncWait());
+    public Connection getReadConnection(ConsistencyLevel consistencyLevel) throws SQLException {
+        HikariDataSource consistencyPool = consistencyDataSources.get(consistencyLevel);
+        if (consistencyPool != null) {
+            return borrow(consistencyPool);
+        }
+        HikariDataSource readPool = readDataSource;
+        return getConnection((readPool != null) ? readPool : dataSource, consistencyLevel);
+    }
+
+    private Connection getConnection(HikariDataSource pool, PoolSettings settings) throws SQLException {
+        Connection conn = borrow(pool);
+
+        try {
+            if (settings.consistencyLevel != null) {
+                ConsistencyLevelSupport.set(conn, settings.consistencyLevel.value, status.supportsSyncWait());
+            } else if (status != null) {
+                // A connection borrowed with another consistency level before keeps it until the next borrow that needs the global one
+                ConsistencyLevelSupport.reset(conn, status.supportsSyncWait());
+            }
+        } catch (SQLException e) {
+            conn.close();
+            throw e;
         }
 
         return conn;
     }
 
-    public Connection getConnection(ConsistencyLevel consistencyLevel) throws SQLException {
-        return GaleraProxyConnection.create(dataSource.getConnection(), consistencyLevel, status);
+    private Connection getConnection(HikariDataSource pool, ConsistencyLevel consistencyLevel) throws SQLException {
+        Connection conn = borrow(pool);
+        try {
+            return GaleraProxyConnection.create(conn, consistencyLevel, status);
+        } catch (SQLException e) {
+            conn.close();
+            throw e;
+        }
+    }
+
+    private Connection borrow(HikariDataSource pool) throws SQLException {
+        long start = System.nanoTime();
+        Connection conn = pool.getConnection();
+        acquireLatency.update(System.nanoTime() - start);
+        return new NodeConnection(conn, this);
+    }
+
+    /**
+     * @return true if this node keeps a separate pool for read connections
+     */
+    public boolean isReadWriteSplit() {
+        return readPoolSettings != null;
+    }
+
+    void onBorrow() {
+        inFlightConnections.increment();
+    }
+
+    void onRelease(long usageNanos) {
+        inFlightConnections.decrement();
+        usageLatency.update(usageNanos);
+    }
+
+    /**
+     * @return peak EWMA of the time (in nanos) it takes to get a connection from this node pool
+     */
+    @Override
+    public double acquireLatency() {
+        return acquireLatency.get();
+    }
+
+    /**
+     * @return peak EWMA of the time (in nanos) connections from this node are in use, i.e. the latency of the statements run on them
+     */
+    @Override
+    public double usageLatency() {
+        return usageLatency.get();
+    }
+
+    /**
+     * @return connections borrowed from this node that were not closed yet
+     */
+    @Override
+    public int inFlightConnections() {
+        return inFlightConnections.get();
+    }
+
+    /**
+     * @return threads waiting for a connection of this node pools, as last sampled by Hikari (at most once a second)
+     */
+    @Override
+    public int pendingConnections() {
+        PoolStatsTrackerFactory stats = poolStats;
+        PoolStatsTrackerFactory readStats = readPoolStats;
+        return ((stats != null) ? stats.pendingThreads() : 0) + ((readStats != null) ? readStats.pendingThreads() : 0);
+    }
+
+    /**
+     * @return connections of this node pools in use, as last sampled by Hikari (at most once a second)
+     */
+    @Override
+    public int activeConnections() {
+        PoolStatsTrackerFactory stats = poolStats;
+        PoolStatsTrackerFactory readStats = readPoolStats;
+        return ((stats != null) ? stats.activeConnections() : 0) + ((readStats != null) ? readStats.activeConnections() : 0);
+    }
+
+    /**
+     * @return idle connections of this node pools, as last sampled by Hikari (at most once a second)
+     */
+    @Override
+    public int idleConnections() {
+        PoolStatsTrackerFactory stats = poolStats;
+        PoolStatsTrackerFactory readStats = readPoolStats;
+        return ((stats != null) ? stats.idleConnections() : 0) + ((readStats != null) ? readStats.idleConnections() : 0);
+    }
+
+    /**
+     * Creates the connection pools of this node, they are filled later on by {@link #warmUp(ExecutorService, long)} or by Hikari itself.
+     */
+    public void onActivate() throws SQLException {
+        if (dataSource != null) {
+            LOG.info("Node {} is back before its drain grace period expired, reusing its pool", node);
+            drainingSince = 0;
+            return;
+        }
+
+        PoolStatsTrackerFactory newPoolStats = newPoolStats(poolSettings);
+        HikariDataSource newDataSource = newPool(getFullPoolName(poolSettings.poolName, node), poolSettings, newPoolStats);
+        PoolStatsTrackerFactory newReadPoolStats = null;
+        HikariDataSource newReadDataSource = null;
+        if (readPoolSettings != null) {
+            newReadPoolStats = newPoolStats(readPoolSettings);
+            try {
+                newReadDataSource = newPool(getFullReadPoolName(poolSettings.poolName, node), readPoolSettings, newReadPoolStats);
+            } catch (SQLException e) {
+                newDataSource.close();
+                throw e;
+            }
+        }
+        Map<ConsistencyLevel, HikariDataSource> newConsistencyDataSources = new EnumMap<ConsistencyLevel, HikariDataSource>(ConsistencyLevel.class);
+        try {
+            for (PoolSettings settings : consistencyPoolSettings) {
+                newConsistencyDataSources.put(settings.consistencyLevel,
+                                              newPool(getFullConsistencyPoolName(poolSettings.poolName, node, settings.consistencyLevel), settings,
+                                                      null));
+            }
+        } catch (SQLException e) {
+            closeAll(newConsistencyDataSources);
+            newDataSource.close();
+            if (newReadDataSource != null) {
+                newReadDataSource.close();
+            }
+            throw e;
+        }
+        poolStats = newPoolStats;
+        readPoolStats = newReadPoolStats;
+        readDataSource = newReadDataSource;
+        if (!newConsistencyDataSources.isEmpty()) {
+            consistencyDataSources = newConsistencyDataSources;
+        }
+        dataSource = newDataSource;
+    }
+
+    private static void closeAll(Map<ConsistencyLevel, HikariDataSource> pools) {
+        for (HikariDataSource pool : pools.values()) {
+            pool.close();
+        }
+    }
+
+    private PoolStatsTrackerFactory newPoolStats(PoolSettings settings) {
+        return new PoolStatsTrackerFactory(metricsEnabled(settings) ? new CodahaleMetricsTrackerFactory(GaleraClient.metricRegistry) : null);
+    }
+
+    private HikariDataSource newPool(String poolName, PoolSettings settings, PoolStatsTrackerFactory stats) throws SQLException {
+        return new HikariDataSource(newHikariConfig(poolName, node, galeraDB, settings, stats));
+    }
+
+    /**
+     * Fills every pool with warm up enabled up to minConnectionsIdlePerHost, all pools at once on the given executor, so the node is only
+     * published to clients once its first requests do not have to open connections.
+     *
+     * @param deadline {@link System#nanoTime()} by which the pools must be filled
+     * @throws TimeoutException if the pools were not filled by the deadline
+     */
+    void warmUp(ExecutorService executor, long deadline) throws Exception {
+        List<Future<?>> warmUps = new ArrayList<Future<?>>();
+        try {
+            submitWarmUp(executor, dataSource, poolSettings, warmUps);
+            submitWarmUp(executor, readDataSource, readPoolSettings, warmUps);
+            Map<ConsistencyLevel, HikariDataSource> consistencyPools = consistencyDataSources;
+            for (PoolSettings settings : consistencyPoolSettings) {
+                submitWarmUp(executor, consistencyPools.get(settings.consistencyLevel), settings, warmUps);
+            }
+            for (Future<?> warmUp : warmUps) {
+                warmUp.get(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+            }
+        } catch (ExecutionException e) {
+            Throwables.propagateIfInstanceOf(e.getCause(), Exception.class);
+            throw Throwables.propagate(e.getCause());
+        } catch (TimeoutException e) {
+            throw new TimeoutException("Pools of node " + node + " were not warmed up in time");
+        } finally {
+            // Interrupts the ones still waiting for a connection, they give back what they got so far
+            for (Future<?> warmUp : warmUps) {
+                warmUp.cancel(true);
+            }
+        }
     }
 
-    public void onActivate() {
-        dataSource = new HikariDataSource(newHikariConfig(getFullPoolName(poolSettings.poolName, node), node, galeraDB, poolSettings));
+    private void submitWarmUp(ExecutorService executor, final HikariDataSource pool, final PoolSettings settings, List<Future<?>> warmUps) {
+        if (pool == null || settings == null || !settings.warmUp) {
+            return;
+        }
+        warmUps.add(executor.submit(new Callable<Void>() {
+            @Override
+            public Void call() throws SQLException {
+                warmUp(pool, settings.minConnectionsIdlePerHost);
+                return null;
+            }
+        }));
+    }
+
+    private void warmUp(HikariDataSource pool, int connections) throws SQLException {
+        LOG.debug("Warming up {} connections on node {}", connections, node);
+        List<Connection> warmConnections = new ArrayList<Connection>(connections);
+        try {
+            for (int i = 0; i < connections; i++) {
+                warmConnections.add(pool.getConnection());
+            }
+        } finally {
+            for (Connection connection : warmConnections) {
+                connection.close();
+            }
+        }
     }
 
     public PrintWriter getLogWriter() throws SQLException {
@@ -156,10 +540,93 @@ public class GaleraNode {
     }
 
     public void onDown() {
+        drainingSince = 0;
         if (dataSource != null) {
             LOG.info("Closing all connections on node " + node);
             dataSource.close();
             dataSource = null;
+            poolStats = null;
+        }
+        if (readDataSource != null) {
+            readDataSource.close();
+            readDataSource = null;
+            readPoolStats = null;
+        }
+        if (!consistencyDataSources.isEmpty()) {
+            closeAll(consistencyDataSources);
+            consistencyDataSources = Collections.emptyMap();
+        }
+    }
+
+    /**
+     * The node no longer gets new borrows but its pool is kept open until {@link #onActivate()} or {@link #onDown()}.
+     *
+     * @return true if the node was not draining already
+     */
+    public boolean onDrain() {
+        if (drainingSince != 0) {
+            return false;
+        }
+        drainingSince = System.currentTimeMillis();
+        return true;
+    }
+
+    public boolean isDraining() {
+        return drainingSince != 0;
+    }
+
+    boolean isDrainExpired(long gracePeriod) {
+        long since = drainingSince;
+        return since != 0 && System.currentTimeMillis() - since >= gracePeriod;
+    }
+
+    /**
+     * @return true if this node was triggering flow control on last discovery, so writes on it stall the whole cluster
+     */
+    @Override
+    public boolean isFlowControlThrottled() {
+        return flowControlThrottled;
+    }
+
+    /**
+     * Evaluates the flow control signals of a fresh status. Thresholds have hysteresis, so a node with its recv queue around the limit
+     * does not flap between throttled and not throttled on every discovery. Only called from the discovery thread.
+     *
+     * @return true if the node became throttled or stopped being throttled
+     */
+    boolean updateFlowControl(GaleraStatus status, long recvQueueHigh, long recvQueueLow) {
+        long flowControlSent = status.flowControlSent();
+        // The counter goes back to 0 on FLUSH STATUS, that is not a new pause
+        boolean sentPause = lastFlowControlSent >= 0 && flowControlSent > lastFlowControlSent;
+        lastFlowControlSent = flowControlSent;
+
+        boolean throttled = sentPause || status.recvQueue() >= (flowControlThrottled ? recvQueueLow + 1 : recvQueueHigh);
+        if (throttled == flowControlThrottled) {
+            return false;
         }
+        flowControlThrottled = throttled;
+        return true;
+    }
+
+    /**
+     * @return true if a new borrow on this node would have to wait for a connection: every connection is in use or threads are already
+     * waiting on its pool
+     */
+    @Override
+    public boolean isSaturated() {
+        return pendingConnections() > 0 || (maxConnections > 0 && inFlightConnections() >= maxConnections);
+    }
+
+    @Override
+    public long seqnoLag() {
+        return seqnoLag;
+    }
+
+    void updateSeqnoLag(long seqnoLag) {
+        this.seqnoLag = seqnoLag;
+    }
+
+    boolean hasPool() {
+        return dataSource != null;
     }
 }
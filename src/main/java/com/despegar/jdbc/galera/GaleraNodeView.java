@@ -0,0 +1,65 @@
+package com.despegar.jdbc.galera;
+
+/**
+ * Read only view of a galera node, what election node policies see of each candidate. Pool counters are sampled by Hikari at most once a
+ * second, the rest is updated on every borrow or discovery.
+ */
+public interface GaleraNodeView {
+
+    /**
+     * @return host:port of the node
+     */
+    String name();
+
+    /**
+     * @return status as of last discovery, or null if it was not discovered yet
+     */
+    GaleraStatus lastStatus();
+
+    /**
+     * @return connections of the node pools in use
+     */
+    int activeConnections();
+
+    /**
+     * @return idle connections of the node pools
+     */
+    int idleConnections();
+
+    /**
+     * @return threads waiting for a connection of the node pools
+     */
+    int pendingConnections();
+
+    /**
+     * @return connections borrowed from the node that were not closed yet
+     */
+    int inFlightConnections();
+
+    /**
+     * @return peak EWMA of the time (in nanos) it takes to get a connection from the node
+     */
+    double acquireLatency();
+
+    /**
+     * @return peak EWMA of the time (in nanos) connections from the node are in use
+     */
+    double usageLatency();
+
+    /**
+     * @return true if a new borrow on the node would have to wait for a connection
+     */
+    boolean isSaturated();
+
+    /**
+     * @return true if the node was triggering flow control on last discovery
+     */
+    boolean isFlowControlThrottled();
+
+    /**
+     * @return how many write sets the node was behind the most up to date active node on last discovery (by wsrep_last_committed), or -1 if
+     * it is unknown
+     */
+    long seqnoLag();
+
+}
@@ -1,10 +1,18 @@
 package com.despegar.jdbc.galera;
 
+import com.google.common.base.MoreObjects;
+import com.google.common.base.Splitter;
+import com.google.common.collect.ImmutableList;
+
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 
+/**
+ * Immutable snapshot of a node status. Variables are parsed once when the status is refreshed, so reading them is allocation free.
+ */
 public class GaleraStatus {
     private static final String INCOMING_ADDRESSES = "wsrep_incoming_addresses";
     private static final String PRIMARY = "Primary";
@@ -19,47 +27,233 @@ public class GaleraStatus {
 
     private static final String THREADS_CONNECTED = "Threads_connected";
 
-    private final Map<String, String> statusMap;
+    private static final String LAST_COMMITTED = "wsrep_last_committed";
+    private static final String CLUSTER_STATE_UUID = "wsrep_cluster_state_uuid";
+    private static final String RECV_QUEUE = "wsrep_local_recv_queue";
+    private static final String SEND_QUEUE = "wsrep_local_send_queue";
+    private static final String FLOW_CONTROL_PAUSED = "wsrep_flow_control_paused";
+    private static final String CERT_FAILURES = "wsrep_local_cert_failures";
+    private static final String FLOW_CONTROL_SENT = "wsrep_flow_control_sent";
+    private static final String PROVIDER_OPTIONS_VARIABLE = "wsrep_provider_options";
+    private static final String SEGMENT_OPTION = "gmcast.segment";
+
+    /**
+     * Status variables this class reads. Targeted status probes fetch only these ones.
+     */
+    static final List<String> STATUS_VARIABLES = Arrays.asList(INCOMING_ADDRESSES, CLUSTER_STATUS, STATE_VARIABLE, THREADS_CONNECTED,
+                                                               LAST_COMMITTED, RECV_QUEUE, SEND_QUEUE, FLOW_CONTROL_PAUSED, CERT_FAILURES,
+                                                               FLOW_CONTROL_SENT, CLUSTER_STATE_UUID);
+
+    /**
+     * Global variables this class reads. Targeted status probes fetch only these ones.
+     */
+    static final List<String> GLOBAL_VARIABLES = Arrays.asList(SYNC_WAIT_VARIABLE, CAUSAL_READS_VARIABLE);
+
+    /**
+     * Global variables this class reads when node segments are discovered.
+     */
+    static final List<String> GLOBAL_VARIABLES_WITH_SEGMENT = Arrays.asList(SYNC_WAIT_VARIABLE, CAUSAL_READS_VARIABLE, PROVIDER_OPTIONS_VARIABLE);
+
+    private static final Splitter ADDRESS_SPLITTER = Splitter.on(",").omitEmptyStrings().trimResults();
+    private static final Splitter.MapSplitter PROVIDER_OPTIONS_SPLITTER = Splitter.on(";").omitEmptyStrings().trimResults().withKeyValueSeparator(
+            Splitter.on("=").limit(2).trimResults());
+
+    /**
+     * Galera node states, as reported by wsrep_local_state_comment.
+     */
+    public enum NodeState {
+        JOINING, DONOR, JOINED, SYNCED, UNKNOWN;
+
+        static NodeState parse(String stateComment) {
+            if (stateComment == null) {
+                return UNKNOWN;
+            }
+            if (stateComment.equals(STATUS_SYNCED)) {
+                return SYNCED;
+            }
+            if (stateComment.equals(STATUS_DONOR)) {
+                return DONOR;
+            }
+            if (stateComment.equals("Joined")) {
+                return JOINED;
+            }
+            if (stateComment.startsWith("Joining")) {
+                return JOINING;
+            }
+            return UNKNOWN;
+        }
+    }
+
+    private final String stateComment;
+    private final NodeState state;
+    private final boolean primary;
+    private final ImmutableList<String> clusterNodes;
+    private final boolean supportsSyncWait;
+    private final String globalConsistencyLevel;
+    private final int threadsConnected;
+    private final long lastCommitted;
+    private final String clusterStateUuid;
+    private final long recvQueue;
+    private final long sendQueue;
+    private final double flowControlPaused;
+    private final long certFailures;
+    private final long flowControlSent;
+    private final int segment;
 
     public GaleraStatus(Map<String, String> statusMap) {
-        this.statusMap = statusMap;
+        stateComment = statusMap.get(STATE_VARIABLE);
+        state = NodeState.parse(stateComment);
+        primary = PRIMARY.equals(statusMap.get(CLUSTER_STATUS));
+        clusterNodes = parseClusterNodes(statusMap.get(INCOMING_ADDRESSES));
+        supportsSyncWait = statusMap.containsKey(SYNC_WAIT_VARIABLE);
+        // Earlier mariadb versions only have wsrep_causal_reads
+        globalConsistencyLevel = supportsSyncWait ? statusMap.get(SYNC_WAIT_VARIABLE) : statusMap.get(CAUSAL_READS_VARIABLE);
+        threadsConnected = (int) parseLong(statusMap.get(THREADS_CONNECTED), -1);
+        lastCommitted = parseLong(statusMap.get(LAST_COMMITTED), -1);
+        clusterStateUuid = statusMap.get(CLUSTER_STATE_UUID);
+        recvQueue = parseLong(statusMap.get(RECV_QUEUE), 0);
+        sendQueue = parseLong(statusMap.get(SEND_QUEUE), 0);
+        flowControlPaused = parseDouble(statusMap.get(FLOW_CONTROL_PAUSED));
+        certFailures = parseLong(statusMap.get(CERT_FAILURES), 0);
+        flowControlSent = parseLong(statusMap.get(FLOW_CONTROL_SENT), 0);
+        segment = parseSegment(statusMap.get(PROVIDER_OPTIONS_VARIABLE));
+    }
+
+    private static ImmutableList<String> parseClusterNodes(String incomingAddresses) {
+        if (incomingAddresses == null) {
+            return ImmutableList.of();
+        }
+        return ImmutableList.copyOf(ADDRESS_SPLITTER.split(incomingAddresses));
+    }
+
+    private static int parseSegment(String providerOptions) {
+        if (providerOptions == null) {
+            return -1;
+        }
+        try {
+            return (int) parseLong(PROVIDER_OPTIONS_SPLITTER.split(providerOptions).get(SEGMENT_OPTION), -1);
+        } catch (IllegalArgumentException e) {
+            return -1;
+        }
+    }
+
+    private static long parseLong(String value, long defaultValue) {
+        if (value == null) {
+            return defaultValue;
+        }
+        try {
+            return Long.parseLong(value.trim());
+        } catch (NumberFormatException e) {
+            return defaultValue;
+        }
+    }
+
+    private static double parseDouble(String value) {
+        if (value == null) {
+            return 0;
+        }
+        try {
+            return Double.parseDouble(value.trim());
+        } catch (NumberFormatException e) {
+            return 0;
+        }
     }
 
     public Collection<String> getClusterNodes() {
-        return Arrays.asList(statusMap.get(INCOMING_ADDRESSES).split(","));
+        return clusterNodes;
     }
 
     public boolean isPrimary() {
-        return statusMap.get(CLUSTER_STATUS).equals(PRIMARY);
+        return primary;
     }
 
     public boolean isSynced() {
-        return state().equals(STATUS_SYNCED);
+        return state == NodeState.SYNCED;
     }
 
+    /**
+     * @return wsrep_local_state_comment as reported by the node
+     */
     public String state() {
-        return statusMap.get(STATE_VARIABLE);
+        return stateComment;
+    }
+
+    public NodeState nodeState() {
+        return state;
     }
 
     public boolean isDonor() {
-        return state().equals(STATUS_DONOR);
+        return state == NodeState.DONOR;
     }
 
     public boolean supportsSyncWait() {
-        return statusMap.keySet().contains(SYNC_WAIT_VARIABLE);
+        return supportsSyncWait;
     }
 
+    /**
+     * @deprecated use {@link #threadsConnected()}, which does not box the value.
+     */
+    @Deprecated
     public Integer threadsConnectedCount() {
-        return Integer.valueOf(statusMap.get(THREADS_CONNECTED));
+        return threadsConnected >= 0 ? threadsConnected : null;
     }
 
-    public String getGlobalConsistencyLevel() {
-        if (supportsSyncWait()) {
-            return statusMap.get(SYNC_WAIT_VARIABLE);
-        }
+    /**
+     * @return Threads_connected or -1 if it is unknown
+     */
+    public int threadsConnected() {
+        return threadsConnected;
+    }
+
+    /**
+     * @return wsrep_last_committed seqno or -1 if it is unknown
+     */
+    public long lastCommitted() {
+        return lastCommitted;
+    }
+
+    /**
+     * @return wsrep_cluster_state_uuid, the cluster history wsrep_last_committed belongs to, or null if it is unknown
+     */
+    public String clusterStateUuid() {
+        return clusterStateUuid;
+    }
+
+    public long recvQueue() {
+        return recvQueue;
+    }
+
+    public long sendQueue() {
+        return sendQueue;
+    }
+
+    /**
+     * @return wsrep_flow_control_paused, the fraction of time replication was paused because of flow control (0.0 - 1.0)
+     */
+    public double flowControlPaused() {
+        return flowControlPaused;
+    }
+
+    public long certFailures() {
+        return certFailures;
+    }
+
+    /**
+     * @return wsrep_flow_control_sent, how many flow control pause events this node sent, i.e. how many times it throttled the cluster
+     */
+    public long flowControlSent() {
+        return flowControlSent;
+    }
+
+    /**
+     * @return gmcast.segment of the node or -1 if it is unknown, i.e. segments are not discovered
+     */
+    public int segment() {
+        return segment;
+    }
 
-        // Earlier mariadb versions
-        return statusMap.get(CAUSAL_READS_VARIABLE);
+    public String getGlobalConsistencyLevel() {
+        return globalConsistencyLevel;
     }
 
     public static GaleraStatus buildTestStatusOk(String node) {
@@ -70,4 +264,23 @@ public class GaleraStatus {
         return new GaleraStatus(statusMap);
     }
 
+    @Override
+    public String toString() {
+        return MoreObjects.toStringHelper(this)
+                .omitNullValues()
+                .add("state", stateComment)
+                .add("primary", primary)
+                .add("clusterNodes", clusterNodes)
+                .add("threadsConnected", threadsConnected)
+                .add("lastCommitted", lastCommitted)
+                .add("clusterStateUuid", clusterStateUuid)
+                .add("recvQueue", recvQueue)
+                .add("sendQueue", sendQueue)
+                .add("flowControlPaused", flowControlPaused)
+                .add("certFailures", certFailures)
+                .add("flowControlSent", flowControlSent)
+                .add("segment", segment)
+                .toString();
+    }
+
 }
@@ -0,0 +1,139 @@
+package com.despegar.jdbc.galera;
+
+import com.google.common.base.MoreObjects;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Immutable snapshot of the active galera nodes. Discovery builds a new snapshot on every change and publishes it with a single volatile
+ * write, so selecting a node only needs one volatile read: no locks, lookups by name nor retries.
+ * <p>
+ * Nodes are kept sorted by name, so the single writer (the first active node sorted alphabetically) is elected once per topology change.
+ */
+public final class GaleraTopology {
+    public static final GaleraTopology EMPTY = new GaleraTopology(new GaleraNode[0]);
+
+    private final GaleraNode[] nodes;
+    private final List<GaleraNode> nodeList;
+    private final List<String> nodeNames;
+    private volatile ConsistentHashRing ring;
+
+    private GaleraTopology(GaleraNode[] nodes) {
+        this.nodes = nodes;
+        this.nodeList = Collections.unmodifiableList(Arrays.asList(nodes));
+        String[] names = new String[nodes.length];
+        for (int i = 0; i < nodes.length; i++) {
+            names[i] = nodes[i].node;
+        }
+        this.nodeNames = Collections.unmodifiableList(Arrays.asList(names));
+    }
+
+    public boolean isEmpty() {
+        return nodes.length == 0;
+    }
+
+    public int size() {
+        return nodes.length;
+    }
+
+    public GaleraNode get(int index) {
+        return nodes[index];
+    }
+
+    /**
+     * @return the first active node sorted alphabetically, or null if there is no active node
+     */
+    public GaleraNode writer() {
+        return nodes.length > 0 ? nodes[0] : null;
+    }
+
+    /**
+     * @return active nodes sorted by name, it is what node aware policies choose from
+     */
+    public List<GaleraNode> nodes() {
+        return nodeList;
+    }
+
+    /**
+     * @return active node names, in the same order as the nodes of this snapshot.
+     */
+    public List<String> nodeNames() {
+        return nodeNames;
+    }
+
+    public boolean contains(String node) {
+        return indexOf(node) >= 0;
+    }
+
+    /**
+     * @param node one of {@link #nodeNames()}, usually the one returned by an election node policy.
+     * @return the active node with that name or null if it is not part of this snapshot.
+     */
+    public GaleraNode node(String node) {
+        int index = indexOf(node);
+        return index >= 0 ? nodes[index] : null;
+    }
+
+    private int indexOf(String node) {
+        // Policies hand back one of our own names, so the identity check matches without hashing nor comparing chars
+        for (int i = 0; i < nodes.length; i++) {
+            if (nodeNames.get(i) == node) {
+                return i;
+            }
+        }
+        for (int i = 0; i < nodes.length; i++) {
+            if (nodeNames.get(i).equals(node)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Built on first use, as most clients never route by key. Concurrent first uses may build it twice, both rings are the same.
+     */
+    ConsistentHashRing ring() {
+        ConsistentHashRing ring = this.ring;
+        if (ring == null) {
+            ring = new ConsistentHashRing(nodeList);
+            this.ring = ring;
+        }
+        return ring;
+    }
+
+    public GaleraTopology with(GaleraNode galeraNode) {
+        if (contains(galeraNode.node)) {
+            return this;
+        }
+        int index = 0;
+        while (index < nodes.length && nodes[index].node.compareTo(galeraNode.node) < 0) {
+            index++;
+        }
+        GaleraNode[] newNodes = new GaleraNode[nodes.length + 1];
+        System.arraycopy(nodes, 0, newNodes, 0, index);
+        newNodes[index] = galeraNode;
+        System.arraycopy(nodes, index, newNodes, index + 1, nodes.length - index);
+        return new GaleraTopology(newNodes);
+    }
+
+    public GaleraTopology without(String node) {
+        int index = indexOf(node);
+        if (index < 0) {
+            return this;
+        }
+        GaleraNode[] newNodes = new GaleraNode[nodes.length - 1];
+        System.arraycopy(nodes, 0, newNodes, 0, index);
+        System.arraycopy(nodes, index + 1, newNodes, index, nodes.length - index - 1);
+        return new GaleraTopology(newNodes);
+    }
+
+    @Override
+    public String toString() {
+        return MoreObjects.toStringHelper(this)
+                .add("nodes", nodeNames)
+                .add("writer", nodes.length > 0 ? nodes[0].node : null)
+                .toString();
+    }
+}
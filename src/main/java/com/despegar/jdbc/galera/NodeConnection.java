@@ -0,0 +1,54 @@
+package com.despegar.jdbc.galera;
+
+import com.despegar.jdbc.galera.connection.DelegatingConnection;
+import com.despegar.jdbc.galera.connection.LazyConnection;
+
+import java.sql.Connection;
+
+/**
+ * A connection borrowed from a {@link GaleraNode} pool. It keeps the node count of in flight connections and its usage latency
+ * up to date.
+ */
+class NodeConnection extends DelegatingConnection {
+
+    private final GaleraNode galeraNode;
+    private final long borrowedAt;
+
+    NodeConnection(Connection delegate, GaleraNode galeraNode) {
+        super(delegate);
+        this.galeraNode = galeraNode;
+        this.borrowedAt = System.nanoTime();
+        galeraNode.onBorrow();
+    }
+
+    GaleraNode galeraNode() {
+        return galeraNode;
+    }
+
+    /**
+     * @return the node a connection handed out by the client was borrowed from, or null if it was not (or a lazy one did not borrow yet)
+     */
+    static GaleraNode galeraNodeOf(Connection connection) {
+        Connection current = connection;
+        while (current != null) {
+            if (current instanceof NodeConnection) {
+                return ((NodeConnection) current).galeraNode;
+            }
+            if (current instanceof DelegatingConnection) {
+                current = ((DelegatingConnection) current).getDelegate();
+            } else if (current instanceof LazyConnection) {
+                // Statements not routed elsewhere run on the first target, e.g. the writer of a RoutingConnection
+                Connection[] targets = ((LazyConnection) current).getTargets();
+                current = (targets.length > 0) ? targets[0] : null;
+            } else {
+                return null;
+            }
+        }
+        return null;
+    }
+
+    @Override
+    protected void afterClose() {
+        galeraNode.onRelease(System.nanoTime() - borrowedAt);
+    }
+}
@@ -0,0 +1,88 @@
+package com.despegar.jdbc.galera;
+
+import com.despegar.jdbc.galera.settings.PoolSettings;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Properties;
+
+/**
+ * The only connection used to query the status of a node when {@link com.despegar.jdbc.galera.settings.StatusChannel#DEDICATED_CONNECTION}
+ * is configured. It is opened on first use, keeps its prepared statements for its whole life and is reopened after any failure.
+ */
+class StatusConnection {
+    private static final Logger LOG = LoggerFactory.getLogger(StatusConnection.class);
+
+    private final String node;
+    private final String jdbcUrl;
+    private final Properties properties;
+    private final Map<String, PreparedStatement> statements = new HashMap<String, PreparedStatement>();
+    private Connection connection;
+
+    StatusConnection(String node, GaleraDB galeraDB, PoolSettings settings) {
+        this.node = node;
+        this.jdbcUrl = galeraDB.jdbcUrlPrefix + node + galeraDB.jdbcUrlSeparator + galeraDB.database;
+        this.properties = new Properties();
+        // Properties rejects null values, a missing user or password is left to the driver defaults
+        if (galeraDB.user != null) {
+            properties.setProperty("user", galeraDB.user);
+        }
+        if (galeraDB.password != null) {
+            properties.setProperty("password", galeraDB.password);
+        }
+        properties.setProperty("connectTimeout", String.valueOf(settings.connectTimeout));
+        properties.setProperty("socketTimeout", String.valueOf(settings.readTimeout));
+    }
+
+    synchronized void query(String query, Map<String, String> statusMap) throws SQLException {
+        ResultSet resultSet = null;
+        try {
+            resultSet = statement(query).executeQuery();
+            while (resultSet.next()) {
+                statusMap.put(resultSet.getString(1), resultSet.getString(2));
+            }
+        } catch (SQLException e) {
+            LOG.debug("Status connection to {} failed, it will be reopened on next query", node);
+            close();
+            throw e;
+        } finally {
+            if (resultSet != null && connection != null) {
+                resultSet.close();
+            }
+        }
+    }
+
+    private PreparedStatement statement(String query) throws SQLException {
+        if (connection == null) {
+            LOG.debug("Opening status connection to {}", node);
+            connection = DriverManager.getConnection(jdbcUrl, properties);
+            connection.setAutoCommit(true);
+        }
+
+        PreparedStatement statement = statements.get(query);
+        if (statement == null) {
+            statement = connection.prepareStatement(query);
+            statements.put(query, statement);
+        }
+        return statement;
+    }
+
+    synchronized void close() {
+        statements.clear();
+        if (connection != null) {
+            try {
+                connection.close();
+            } catch (SQLException e) {
+                LOG.debug("Error closing status connection to " + node, e);
+            }
+            connection = null;
+        }
+    }
+}
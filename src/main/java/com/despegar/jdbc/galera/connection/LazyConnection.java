@@ -0,0 +1,468 @@
+package com.despegar.jdbc.galera.connection;
+
+import java.sql.Array;
+import java.sql.Blob;
+import java.sql.CallableStatement;
+import java.sql.Clob;
+import java.sql.Connection;
+import java.sql.DatabaseMetaData;
+import java.sql.NClob;
+import java.sql.PreparedStatement;
+import java.sql.SQLClientInfoException;
+import java.sql.SQLException;
+import java.sql.SQLWarning;
+import java.sql.SQLXML;
+import java.sql.Savepoint;
+import java.sql.Statement;
+import java.sql.Struct;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.Executor;
+
+/**
+ * A {@link Connection} that only borrows a physical connection when the first statement runs. Until then autocommit, read only,
+ * transaction isolation, catalog and schema are recorded and applied once the connection is borrowed, while commit and rollback have
+ * nothing to do. Closing it before any statement ran does not touch the pool at all.
+ */
+public class LazyConnection implements Connection {
+
+    /**
+     * Borrows the physical connection, e.g. choosing a node and taking a connection from its pool.
+     */
+    public interface ConnectionSource {
+        Connection getConnection() throws SQLException;
+    }
+
+    private static final Connection[] NONE = new Connection[0];
+
+    private final ConnectionSource source;
+    private final boolean defaultAutoCommit;
+    private final boolean defaultReadOnly;
+    private final int defaultTransactionIsolation;
+    private Connection target;
+    private boolean closed;
+
+    private Boolean autoCommit;
+    private Boolean readOnly;
+    private Integer transactionIsolation;
+    private String catalog;
+    private String schema;
+
+    /**
+     * @param defaultAutoCommit           autocommit of the connections of the source
+     * @param defaultReadOnly             read only of the connections of the source
+     * @param defaultTransactionIsolation transaction isolation of the connections of the source, or -1 if it is unknown
+     */
+    public LazyConnection(ConnectionSource source, boolean defaultAutoCommit, boolean defaultReadOnly, int defaultTransactionIsolation) {
+        this.source = source;
+        this.defaultAutoCommit = defaultAutoCommit;
+        this.defaultReadOnly = defaultReadOnly;
+        this.defaultTransactionIsolation = defaultTransactionIsolation;
+    }
+
+    /**
+     * @return the physical connection, borrowing it if it was not yet
+     */
+    protected Connection target() throws SQLException {
+        if (target == null) {
+            target = open(source);
+        }
+        return target;
+    }
+
+    /**
+     * @param sql statement about to run on the returned connection
+     * @return the physical connection the statement runs on, {@link #target()} unless overridden
+     */
+    protected Connection target(String sql) throws SQLException {
+        return target();
+    }
+
+    /**
+     * @return the connections borrowed so far, settings changes and close are applied to all of them
+     */
+    protected Connection[] borrowedConnections() {
+        return (target != null) ? new Connection[] { target } : NONE;
+    }
+
+    /**
+     * @return the physical connections borrowed so far, the one statements run on by default first. Empty until a statement runs.
+     */
+    public Connection[] getTargets() {
+        return borrowedConnections();
+    }
+
+    /**
+     * Borrows a connection from the source and applies the settings recorded so far.
+     */
+    protected Connection open(ConnectionSource connectionSource) throws SQLException {
+        if (closed) {
+            throw new SQLException("Connection is closed");
+        }
+        Connection connection = connectionSource.getConnection();
+        try {
+            if (autoCommit != null) {
+                connection.setAutoCommit(autoCommit);
+            }
+            if (readOnly != null) {
+                connection.setReadOnly(readOnly);
+            }
+            if (transactionIsolation != null) {
+                connection.setTransactionIsolation(transactionIsolation);
+            }
+            if (catalog != null) {
+                connection.setCatalog(catalog);
+            }
+            if (schema != null) {
+                connection.setSchema(schema);
+            }
+        } catch (SQLException e) {
+            connection.close();
+            throw e;
+        }
+        return connection;
+    }
+
+    /**
+     * @return true once a physical connection was borrowed
+     */
+    public boolean isBorrowed() {
+        return borrowedConnections().length > 0;
+    }
+
+    @Override
+    public Statement createStatement() throws SQLException {
+        return target().createStatement();
+    }
+
+    @Override
+    public PreparedStatement prepareStatement(String sql) throws SQLException {
+        return target(sql).prepareStatement(sql);
+    }
+
+    @Override
+    public CallableStatement prepareCall(String sql) throws SQLException {
+        return target().prepareCall(sql);
+    }
+
+    @Override
+    public String nativeSQL(String sql) throws SQLException {
+        return target().nativeSQL(sql);
+    }
+
+    @Override
+    public void setAutoCommit(boolean autoCommit) throws SQLException {
+        for (Connection connection : borrowedConnections()) {
+            connection.setAutoCommit(autoCommit);
+        }
+        this.autoCommit = autoCommit;
+    }
+
+    @Override
+    public boolean getAutoCommit() throws SQLException {
+        return (autoCommit != null) ? autoCommit : defaultAutoCommit;
+    }
+
+    @Override
+    public void commit() throws SQLException {
+        for (Connection connection : borrowedConnections()) {
+            connection.commit();
+        }
+    }
+
+    @Override
+    public void rollback() throws SQLException {
+        for (Connection connection : borrowedConnections()) {
+            connection.rollback();
+        }
+    }
+
+    @Override
+    public void close() throws SQLException {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        SQLException closeException = null;
+        for (Connection connection : borrowedConnections()) {
+            try {
+                connection.close();
+            } catch (SQLException e) {
+                closeException = e;
+            }
+        }
+        if (closeException != null) {
+            throw closeException;
+        }
+    }
+
+    @Override
+    public boolean isClosed() throws SQLException {
+        return closed;
+    }
+
+    @Override
+    public DatabaseMetaData getMetaData() throws SQLException {
+        return target().getMetaData();
+    }
+
+    @Override
+    public void setReadOnly(boolean readOnly) throws SQLException {
+        for (Connection connection : borrowedConnections()) {
+            connection.setReadOnly(readOnly);
+        }
+        this.readOnly = readOnly;
+    }
+
+    @Override
+    public boolean isReadOnly() throws SQLException {
+        return (readOnly != null) ? readOnly : defaultReadOnly;
+    }
+
+    @Override
+    public void setCatalog(String catalog) throws SQLException {
+        for (Connection connection : borrowedConnections()) {
+            connection.setCatalog(catalog);
+        }
+        this.catalog = catalog;
+    }
+
+    @Override
+    public String getCatalog() throws SQLException {
+        return (catalog != null) ? catalog : target().getCatalog();
+    }
+
+    @Override
+    public void setTransactionIsolation(int level) throws SQLException {
+        for (Connection connection : borrowedConnections()) {
+            connection.setTransactionIsolation(level);
+        }
+        this.transactionIsolation = level;
+    }
+
+    @Override
+    public int getTransactionIsolation() throws SQLException {
+        if (transactionIsolation != null) {
+            return transactionIsolation;
+        }
+        return (defaultTransactionIsolation >= 0) ? defaultTransactionIsolation : target().getTransactionIsolation();
+    }
+
+    @Override
+    public SQLWarning getWarnings() throws SQLException {
+        return (target != null) ? target.getWarnings() : null;
+    }
+
+    @Override
+    public void clearWarnings() throws SQLException {
+        for (Connection connection : borrowedConnections()) {
+            connection.clearWarnings();
+        }
+    }
+
+    @Override
+    public Statement createStatement(int resultSetType, int resultSetConcurrency) throws SQLException {
+        return target().createStatement(resultSetType, resultSetConcurrency);
+    }
+
+    @Override
+    public PreparedStatement prepareStatement(String sql, int resultSetType, int resultSetConcurrency) throws SQLException {
+        return target(sql).prepareStatement(sql, resultSetType, resultSetConcurrency);
+    }
+
+    @Override
+    public CallableStatement prepareCall(String sql, int resultSetType, int resultSetConcurrency) throws SQLException {
+        return target().prepareCall(sql, resultSetType, resultSetConcurrency);
+    }
+
+    @Override
+    public Map<String, Class<?>> getTypeMap() throws SQLException {
+        return target().getTypeMap();
+    }
+
+    @Override
+    public void setTypeMap(Map<String, Class<?>> map) throws SQLException {
+        target().setTypeMap(map);
+    }
+
+    @Override
+    public void setHoldability(int holdability) throws SQLException {
+        target().setHoldability(holdability);
+    }
+
+    @Override
+    public int getHoldability() throws SQLException {
+        return target().getHoldability();
+    }
+
+    @Override
+    public Savepoint setSavepoint() throws SQLException {
+        return target().setSavepoint();
+    }
+
+    @Override
+    public Savepoint setSavepoint(String name) throws SQLException {
+        return target().setSavepoint(name);
+    }
+
+    @Override
+    public void rollback(Savepoint savepoint) throws SQLException {
+        target().rollback(savepoint);
+    }
+
+    @Override
+    public void releaseSavepoint(Savepoint savepoint) throws SQLException {
+        target().releaseSavepoint(savepoint);
+    }
+
+    @Override
+    public Statement createStatement(int resultSetType, int resultSetConcurrency, int resultSetHoldability) throws SQLException {
+        return target().createStatement(resultSetType, resultSetConcurrency, resultSetHoldability);
+    }
+
+    @Override
+    public PreparedStatement prepareStatement(String sql, int resultSetType, int resultSetConcurrency, int resultSetHoldability)
+            throws SQLException {
+        return target(sql).prepareStatement(sql, resultSetType, resultSetConcurrency, resultSetHoldability);
+    }
+
+    @Override
+    public CallableStatement prepareCall(String sql, int resultSetType, int resultSetConcurrency, int resultSetHoldability) throws SQLException {
+        return target().prepareCall(sql, resultSetType, resultSetConcurrency, resultSetHoldability);
+    }
+
+    @Override
+    public PreparedStatement prepareStatement(String sql, int autoGeneratedKeys) throws SQLException {
+        return target(sql).prepareStatement(sql, autoGeneratedKeys);
+    }
+
+    @Override
+    public PreparedStatement prepareStatement(String sql, int[] columnIndexes) throws SQLException {
+        return target(sql).prepareStatement(sql, columnIndexes);
+    }
+
+    @Override
+    public PreparedStatement prepareStatement(String sql, String[] columnNames) throws SQLException {
+        return target(sql).prepareStatement(sql, columnNames);
+    }
+
+    @Override
+    public Clob createClob() throws SQLException {
+        return target().createClob();
+    }
+
+    @Override
+    public Blob createBlob() throws SQLException {
+        return target().createBlob();
+    }
+
+    @Override
+    public NClob createNClob() throws SQLException {
+        return target().createNClob();
+    }
+
+    @Override
+    public SQLXML createSQLXML() throws SQLException {
+        return target().createSQLXML();
+    }
+
+    @Override
+    public boolean isValid(int timeout) throws SQLException {
+        if (closed) {
+            return false;
+        }
+        for (Connection connection : borrowedConnections()) {
+            if (!connection.isValid(timeout)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public void setClientInfo(String name, String value) throws SQLClientInfoException {
+        try {
+            target().setClientInfo(name, value);
+        } catch (SQLClientInfoException e) {
+            throw e;
+        } catch (SQLException e) {
+            throw new SQLClientInfoException(e.getMessage(), null, e);
+        }
+    }
+
+    @Override
+    public void setClientInfo(Properties properties) throws SQLClientInfoException {
+        try {
+            target().setClientInfo(properties);
+        } catch (SQLClientInfoException e) {
+            throw e;
+        } catch (SQLException e) {
+            throw new SQLClientInfoException(e.getMessage(), null, e);
+        }
+    }
+
+    @Override
+    public String getClientInfo(String name) throws SQLException {
+        return target().getClientInfo(name);
+    }
+
+    @Override
+    public Properties getClientInfo() throws SQLException {
+        return target().getClientInfo();
+    }
+
+    @Override
+    public Array createArrayOf(String typeName, Object[] elements) throws SQLException {
+        return target().createArrayOf(typeName, elements);
+    }
+
+    @Override
+    public Struct createStruct(String typeName, Object[] attributes) throws SQLException {
+        return target().createStruct(typeName, attributes);
+    }
+
+    @Override
+    public void setSchema(String schema) throws SQLException {
+        for (Connection connection : borrowedConnections()) {
+            connection.setSchema(schema);
+        }
+        this.schema = schema;
+    }
+
+    @Override
+    public String getSchema() throws SQLException {
+        return (schema != null) ? schema : target().getSchema();
+    }
+
+    @Override
+    public void abort(Executor executor) throws SQLException {
+        closed = true;
+        for (Connection connection : borrowedConnections()) {
+            connection.abort(executor);
+        }
+    }
+
+    @Override
+    public void setNetworkTimeout(Executor executor, int milliseconds) throws SQLException {
+        target().setNetworkTimeout(executor, milliseconds);
+    }
+
+    @Override
+    public int getNetworkTimeout() throws SQLException {
+        return target().getNetworkTimeout();
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T unwrap(Class<T> iface) throws SQLException {
+        if (iface.isInstance(this)) {
+            return (T) this;
+        }
+        return target().unwrap(iface);
+    }
+
+    @Override
+    public boolean isWrapperFor(Class<?> iface) throws SQLException {
+        return iface.isInstance(this) || target().isWrapperFor(iface);
+    }
+}
@@ -0,0 +1,51 @@
+package com.despegar.jdbc.galera.connection;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+
+/**
+ * A {@link LazyConnection} that routes each statement: plain reads run in autocommit go to a connection from a reader node, everything
+ * else (writes, transactions, statements whose SQL is unknown up front such as {@link #createStatement()}) goes to a connection from the
+ * writer node. Once the writer connection is borrowed, new reads go to it as well, so they see the writes of this connection. The reader
+ * connection is kept until this one is closed, so the statements and result sets already open on it are still usable.
+ */
+public class RoutingConnection extends LazyConnection {
+
+    private final ConnectionSource readSource;
+    private final SqlClassifier sqlClassifier;
+    private Connection readTarget;
+
+    /**
+     * @param writeSource borrows a connection from the writer node
+     * @param readSource  borrows a connection from a reader node
+     */
+    public RoutingConnection(ConnectionSource writeSource, ConnectionSource readSource, SqlClassifier sqlClassifier, boolean defaultAutoCommit,
+                             boolean defaultReadOnly, int defaultTransactionIsolation) {
+        super(writeSource, defaultAutoCommit, defaultReadOnly, defaultTransactionIsolation);
+        this.readSource = readSource;
+        this.sqlClassifier = sqlClassifier;
+    }
+
+    @Override
+    protected Connection target(String sql) throws SQLException {
+        if (super.borrowedConnections().length > 0 || !getAutoCommit() || !sqlClassifier.isRead(sql)) {
+            return target();
+        }
+        if (readTarget == null) {
+            readTarget = open(readSource);
+        }
+        return readTarget;
+    }
+
+    @Override
+    protected Connection[] borrowedConnections() {
+        Connection[] writeTargets = super.borrowedConnections();
+        if (readTarget == null) {
+            return writeTargets;
+        }
+        Connection[] targets = new Connection[writeTargets.length + 1];
+        System.arraycopy(writeTargets, 0, targets, 0, writeTargets.length);
+        targets[writeTargets.length] = readTarget;
+        return targets;
+    }
+}
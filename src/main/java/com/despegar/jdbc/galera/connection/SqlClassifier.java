@@ -0,0 +1,48 @@
+package com.despegar.jdbc.galera.connection;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+
+import java.util.regex.Pattern;
+
+/**
+ * Tells plain reads from the rest of the statements, so they can run on another node. Only a SELECT that neither locks rows nor depends
+ * on or changes session state is a plain read. Applications run the same few statements over and over, so classifications are cached
+ * per SQL string, up to a bounded number of them.
+ */
+public class SqlClassifier {
+    private static final Pattern LEADING_COMMENTS = Pattern.compile("^(\\s+|/\\*.*?\\*/|(--|#)[^\\n]*(\\n|$))+", Pattern.DOTALL);
+    private static final Pattern SELECT = Pattern.compile("^(?i)select\\b");
+    private static final Pattern NOT_PLAIN_READ = Pattern.compile(
+            "(?i)\\bfor\\s+update\\b|\\block\\s+in\\s+share\\s+mode\\b|\\binto\\b|@|\\blast_insert_id\\s*\\(|\\bfound_rows\\s*\\(|\\bget_lock\\s*\\("
+            + "|\\brelease_lock\\s*\\(|\\bnextval\\s*\\(|\\bsql_calc_found_rows\\b");
+
+    private final Cache<String, Boolean> classifications;
+
+    /**
+     * @param maxCachedStatements how many SQL strings are classified once
+     */
+    public SqlClassifier(long maxCachedStatements) {
+        this.classifications = CacheBuilder.newBuilder().maximumSize(maxCachedStatements).build();
+    }
+
+    /**
+     * @return true if the statement is a plain read
+     */
+    public boolean isRead(String sql) {
+        if (sql == null) {
+            return false;
+        }
+        Boolean read = classifications.getIfPresent(sql);
+        if (read == null) {
+            read = classify(sql);
+            classifications.put(sql, read);
+        }
+        return read;
+    }
+
+    static boolean classify(String sql) {
+        String statement = LEADING_COMMENTS.matcher(sql).replaceFirst("");
+        return SELECT.matcher(statement).find() && !NOT_PLAIN_READ.matcher(statement).find();
+    }
+}
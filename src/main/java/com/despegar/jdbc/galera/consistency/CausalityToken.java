@@ -0,0 +1,65 @@
+package com.despegar.jdbc.galera.consistency;
+
+import com.despegar.jdbc.galera.GaleraStatus;
+import com.google.common.base.MoreObjects;
+
+/**
+ * Position of a write in the cluster history: the wsrep_last_committed seqno (and cluster state uuid) seen right after it committed, and the
+ * node it committed on. A read carrying it only needs a node that already applied that seqno to see the write, instead of waiting for the
+ * whole cluster with wsrep_sync_wait.
+ */
+public final class CausalityToken {
+    private final String clusterStateUuid;
+    private final long seqno;
+    private final String originNode;
+
+    /**
+     * @param clusterStateUuid wsrep_cluster_state_uuid, or null if it is unknown
+     * @param seqno            wsrep_last_committed after the write committed
+     * @param originNode       node the write committed on, or null if it is unknown
+     */
+    public CausalityToken(String clusterStateUuid, long seqno, String originNode) {
+        this.clusterStateUuid = clusterStateUuid;
+        this.seqno = seqno;
+        this.originNode = originNode;
+    }
+
+    public String clusterStateUuid() {
+        return clusterStateUuid;
+    }
+
+    public long seqno() {
+        return seqno;
+    }
+
+    public String originNode() {
+        return originNode;
+    }
+
+    /**
+     * @return the galera GTID of this position, i.e. cluster_state_uuid:seqno
+     */
+    public String gtid() {
+        return clusterStateUuid + ":" + seqno;
+    }
+
+    /**
+     * Seqnos of different cluster histories (e.g. after a bootstrap) are not comparable, so a node of another history never applied it.
+     *
+     * @return true if a node with this status already applied the write
+     */
+    public boolean isAppliedOn(GaleraStatus status) {
+        if (status == null || status.lastCommitted() < seqno) {
+            return false;
+        }
+        return clusterStateUuid == null || status.clusterStateUuid() == null || clusterStateUuid.equals(status.clusterStateUuid());
+    }
+
+    @Override
+    public String toString() {
+        return MoreObjects.toStringHelper(this)
+                .add("gtid", gtid())
+                .add("originNode", originNode)
+                .toString();
+    }
+}
@@ -1,38 +1,107 @@
 package com.despegar.jdbc.galera.consistency;
 
+import com.despegar.jdbc.galera.connection.DelegatingConnection;
+import com.google.common.collect.MapMaker;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.sql.Connection;
-import java.sql.PreparedStatement;
 import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.concurrent.ConcurrentMap;
+import java.util.regex.Pattern;
 
+/**
+ * Sets wsrep_sync_wait (wsrep_causal_reads on earlier mariaDB versions) at session level. The session value of each physical connection
+ * is remembered, so a SET is only issued when the requested level differs from it. Values set with plain SQL are not tracked.
+ */
 public class ConsistencyLevelSupport {
     private static final Logger LOG = LoggerFactory.getLogger(ConsistencyLevelSupport.class);
 
-    private static final String SET_SESSION_SYNC_WAIT = "SET SESSION wsrep_sync_wait = ?";
-    private static final String SET_SESSION_CAUSAL_READS = "SET SESSION wsrep_causal_reads = ?";
+    private static final String SET_SESSION_SYNC_WAIT = "SET SESSION wsrep_sync_wait = ";
+    private static final String SET_SESSION_CAUSAL_READS = "SET SESSION wsrep_causal_reads = ";
+    private static final String DEFAULT = "DEFAULT";
+    private static final Pattern SYNC_WAIT_VALUE = Pattern.compile("\\d{1,2}");
+    private static final Pattern CAUSAL_READS_VALUE = Pattern.compile("(?i)ON|OFF|TRUE|FALSE|0|1");
+
+    /**
+     * Session value of the physical connections whose consistency level was changed, weakly keyed so evicted connections go away.
+     * Connections missing here use the global value.
+     */
+    private static final ConcurrentMap<Connection, String> SESSION_LEVELS = new MapMaker().weakKeys().makeMap();
 
     public static void set(Connection connection, String consistencyLevel, boolean supportsSyncWait) throws SQLException {
-        PreparedStatement preparedStatement = null;
+        Connection physicalConnection = physicalConnection(connection);
+        if (consistencyLevel != null && consistencyLevel.equals(SESSION_LEVELS.get(physicalConnection))) {
+            return;
+        }
+        validate(consistencyLevel, supportsSyncWait);
+        execute(connection, physicalConnection, consistencyLevel, supportsSyncWait);
+        SESSION_LEVELS.put(physicalConnection, consistencyLevel);
+    }
 
-        try {
-            if (supportsSyncWait) {
-                LOG.info("Setting wsrep_sync_wait to {}", consistencyLevel);
-                preparedStatement = connection.prepareStatement(SET_SESSION_SYNC_WAIT);
-                preparedStatement.setInt(1, Integer.valueOf(consistencyLevel));
-            } else {
-                LOG.info("Setting wsrep_causal_reads to {}", consistencyLevel);
-                preparedStatement = connection.prepareStatement(SET_SESSION_CAUSAL_READS);
-                preparedStatement.setString(1, consistencyLevel);
-            }
+    /**
+     * @return the statement that sets the session to this consistency level, e.g. as init SQL of a pool pinned to it
+     */
+    public static String setSessionSql(ConsistencyLevel consistencyLevel) {
+        boolean causalReads = consistencyLevel == ConsistencyLevel.CAUSAL_READS_ON || consistencyLevel == ConsistencyLevel.CAUSAL_READS_OFF;
+        return (causalReads ? SET_SESSION_CAUSAL_READS : SET_SESSION_SYNC_WAIT) + consistencyLevel.value;
+    }
 
-            preparedStatement.execute();
+    /**
+     * Sets the session consistency level back to the global one, if it was changed.
+     */
+    public static void reset(Connection connection, boolean supportsSyncWait) throws SQLException {
+        Connection physicalConnection = physicalConnection(connection);
+        if (!SESSION_LEVELS.containsKey(physicalConnection)) {
+            return;
+        }
+        execute(connection, physicalConnection, DEFAULT, supportsSyncWait);
+        SESSION_LEVELS.remove(physicalConnection);
+    }
 
+    private static void execute(Connection connection, Connection physicalConnection, String consistencyLevel, boolean supportsSyncWait)
+            throws SQLException {
+        String variable = supportsSyncWait ? SET_SESSION_SYNC_WAIT : SET_SESSION_CAUSAL_READS;
+        if (LOG.isDebugEnabled()) {
+            LOG.debug("Setting {}{}", variable.substring("SET SESSION ".length()), consistencyLevel);
+        }
+        Statement statement = connection.createStatement();
+        try {
+            statement.execute(variable + consistencyLevel);
+        } catch (SQLException e) {
+            // The session value is unknown now
+            SESSION_LEVELS.remove(physicalConnection);
+            throw e;
         } finally {
-            if (preparedStatement != null) {
-                preparedStatement.close();
+            statement.close();
+        }
+    }
+
+    /**
+     * Levels are written as literals to skip a prepared statement round trip, so only the values these variables take are accepted.
+     */
+    private static void validate(String consistencyLevel, boolean supportsSyncWait) throws SQLException {
+        Pattern validValue = supportsSyncWait ? SYNC_WAIT_VALUE : CAUSAL_READS_VALUE;
+        if (consistencyLevel == null || !validValue.matcher(consistencyLevel).matches()) {
+            throw new SQLException("Invalid consistency level " + consistencyLevel);
+        }
+    }
+
+    /**
+     * Pools hand out a new wrapper on every borrow, the driver connection behind them is what keeps the session.
+     */
+    private static Connection physicalConnection(Connection connection) throws SQLException {
+        Connection current = connection;
+        while (current instanceof DelegatingConnection) {
+            current = ((DelegatingConnection) current).getDelegate();
+        }
+        if (current.isWrapperFor(Connection.class)) {
+            Connection unwrapped = current.unwrap(Connection.class);
+            if (unwrapped != null) {
+                return unwrapped;
             }
         }
+        return current;
     }
 }
@@ -6,7 +6,7 @@ import com.google.common.base.Optional;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-public class GaleraClientLoggingListener implements GaleraClientListener {
+public class GaleraClientLoggingListener implements GaleraClientListener, WriterChangeListener {
     private static final Logger LOG = LoggerFactory.getLogger(GaleraClientLoggingListener.class);
 
     @Override
@@ -24,6 +24,11 @@ public class GaleraClientLoggingListener implements GaleraClientListener {
         LOG.info("Removing galera node: {}", node);
     }
 
+    @Override
+    public void onSelectingNewMaster(String previousMaster, String newMaster) {
+        LOG.info("Selecting new master galera node: {} (previous: {})", newMaster, previousMaster);
+    }
+
     public void onDiscoveryPoolMetrics(String nodeName, String poolName, HikariMetrics hikariMetrics, Optional<Integer> threadsConnected) {
         LOG.info(
                 "Metrics for node {}, pool '{}' ---> TimeWaitingForConnection (p95): {}, Usage time (p95): {}, Total connections: {}, Idle connections: {}, " +
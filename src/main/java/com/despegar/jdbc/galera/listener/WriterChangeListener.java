@@ -0,0 +1,16 @@
+package com.despegar.jdbc.galera.listener;
+
+/**
+ * Optional callback for a {@link GaleraClientListener}: if the configured listener also implements this interface, it is told when the
+ * writer node changes.
+ */
+public interface WriterChangeListener {
+
+    /**
+     * Called when the single writer (the first active node sorted alphabetically) changes, e.g. to make in flight writers reconnect.
+     *
+     * @param previousMaster Previous writer node or null if there was no active node
+     * @param newMaster      New writer node or null if there is no active node left
+     */
+    void onSelectingNewMaster(String previousMaster, String newMaster);
+}
@@ -0,0 +1,66 @@
+package com.despegar.jdbc.galera.metrics;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Peak exponentially weighted moving average of a latency. A sample above the current value replaces it right away (so a node that turns
+ * slow is penalized at once), while lower samples decay it exponentially depending on the time elapsed since the previous sample.
+ * <p>
+ * It is updated on every borrow and release, so it takes no lock: the average (as a float) and the time of the previous sample (in ticks
+ * of 2^20 nanos, about a millisecond) are packed in a single long that is updated with compare and set.
+ */
+public class PeakEwma {
+
+    private static final int TICK_SHIFT = 20;
+
+    private final double decayNanos;
+    private final AtomicLong state;
+
+    /**
+     * @param decayNanos Time it takes for a peak to decay to ~37% of its value when faster samples arrive.
+     */
+    public PeakEwma(long decayNanos) {
+        this.decayNanos = decayNanos;
+        this.state = new AtomicLong(pack(0, ticks(System.nanoTime())));
+    }
+
+    public void update(long sampleNanos) {
+        int now = ticks(System.nanoTime());
+        while (true) {
+            long previous = state.get();
+            double value = value(previous);
+            // Ticks wrap around every ~50 days, the int difference is right as long as samples are less than half of that apart
+            double elapsed = Math.max(now - (int) previous, 0) * (double) (1L << TICK_SHIFT);
+
+            double next;
+            if (sampleNanos > value) {
+                next = sampleNanos;
+            } else {
+                double weight = Math.exp(-elapsed / decayNanos);
+                next = value * weight + sampleNanos * (1 - weight);
+            }
+            if (state.compareAndSet(previous, pack(next, now))) {
+                return;
+            }
+        }
+    }
+
+    /**
+     * @return current average in nanoseconds, 0 until the first sample
+     */
+    public double get() {
+        return value(state.get());
+    }
+
+    private static int ticks(long nanos) {
+        return (int) (nanos >>> TICK_SHIFT);
+    }
+
+    private static long pack(double value, int ticks) {
+        return ((long) Float.floatToIntBits((float) value) << 32) | (ticks & 0xFFFFFFFFL);
+    }
+
+    private static double value(long state) {
+        return Float.intBitsToFloat((int) (state >>> 32));
+    }
+}
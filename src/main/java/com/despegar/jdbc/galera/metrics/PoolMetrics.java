@@ -14,6 +14,7 @@ import java.util.Map;
 import java.util.SortedMap;
 
 import static com.despegar.jdbc.galera.utils.PoolNameHelper.getFullPoolName;
+import static com.despegar.jdbc.galera.utils.PoolNameHelper.getFullReadPoolName;
 import static com.despegar.jdbc.galera.utils.PoolNameHelper.nodeNameWithoutPort;
 
 public class PoolMetrics {
@@ -31,27 +32,37 @@ public class PoolMetrics {
             return;
         }
 
-        for (String nodeName : nodes.keySet()) {
-            final String poolFullName = getFullPoolName(poolName, nodeName);
+        for (Map.Entry<String, GaleraNode> node : nodes.entrySet()) {
+            String nodeName = node.getKey();
+            Optional<Integer> threadsConnected = getThreadsConnected(node.getValue());
 
-            HikariMetrics hikariMetrics = HikariMetrics.newBuilder()
-                    .waitPercentile95(getTimerPercentile95(metricRegistry, poolFullName + METRIC_NAME_POOL_WAIT))
-                    .usagePercentile95(getHistogramPercentile95(metricRegistry, poolFullName + METRIC_NAME_POOL_USAGE))
-                    .totalConnections(getGaugeValue(metricRegistry, poolFullName + METRIC_NAME_TOTAL_CONN))
-                    .idleConnections(getGaugeValue(metricRegistry, poolFullName + METRIC_NAME_IDLE_CONN))
-                    .activeConnections(getGaugeValue(metricRegistry, poolFullName + METRIC_NAME_ACTIVE_CONN))
-                    .waitingForConnections(getGaugeValue(metricRegistry, poolFullName + METRIC_NAME_PENDING_CONN)).build();
-
-            Optional<Integer> threadsConnected = getThreadsConnected(nodes.get(nodeName));
-
-            listener.onDiscoveryPoolMetrics(nodeNameWithoutPort(nodeName), poolFullName, hikariMetrics, threadsConnected);
+            reportPoolMetrics(metricRegistry, listener, nodeName, getFullPoolName(poolName, nodeName), threadsConnected);
+            if (node.getValue().isReadWriteSplit()) {
+                reportPoolMetrics(metricRegistry, listener, nodeName, getFullReadPoolName(poolName, nodeName), threadsConnected);
+            }
         }
     }
 
+    private static void reportPoolMetrics(MetricRegistry metricRegistry, GaleraClientListener listener, String nodeName, String poolFullName,
+                                          Optional<Integer> threadsConnected) {
+        HikariMetrics hikariMetrics = HikariMetrics.newBuilder()
+                .waitPercentile95(getTimerPercentile95(metricRegistry, poolFullName + METRIC_NAME_POOL_WAIT))
+                .usagePercentile95(getHistogramPercentile95(metricRegistry, poolFullName + METRIC_NAME_POOL_USAGE))
+                .totalConnections(getGaugeValue(metricRegistry, poolFullName + METRIC_NAME_TOTAL_CONN))
+                .idleConnections(getGaugeValue(metricRegistry, poolFullName + METRIC_NAME_IDLE_CONN))
+                .activeConnections(getGaugeValue(metricRegistry, poolFullName + METRIC_NAME_ACTIVE_CONN))
+                .waitingForConnections(getGaugeValue(metricRegistry, poolFullName + METRIC_NAME_PENDING_CONN)).build();
+
+        listener.onDiscoveryPoolMetrics(nodeNameWithoutPort(nodeName), poolFullName, hikariMetrics, threadsConnected);
+    }
+
     private static Optional<Integer> getThreadsConnected(GaleraNode galeraNode) {
         Optional<Integer> threadsConnected = Optional.absent();
         try {
-            threadsConnected = Optional.fromNullable(galeraNode.status().threadsConnectedCount());
+            int count = galeraNode.status().threadsConnected();
+            if (count >= 0) {
+                threadsConnected = Optional.of(count);
+            }
         } catch (Exception e) {
             LOG.warn("Error getting threadsConnected metric", e);
         }
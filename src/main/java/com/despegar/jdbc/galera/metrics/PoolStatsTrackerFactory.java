@@ -0,0 +1,45 @@
+package com.despegar.jdbc.galera.metrics;
+
+import com.zaxxer.hikari.metrics.MetricsTracker;
+import com.zaxxer.hikari.metrics.MetricsTrackerFactory;
+import com.zaxxer.hikari.metrics.PoolStats;
+
+/**
+ * Keeps the {@link PoolStats} Hikari hands to its metrics tracker, so a node can read its pool load (Hikari refreshes them at most once a
+ * second). When pool metrics are enabled, trackers are created by the given delegate, so metrics keep being reported as usual.
+ */
+public class PoolStatsTrackerFactory implements MetricsTrackerFactory {
+    private final MetricsTrackerFactory delegate;
+    private volatile PoolStats poolStats;
+
+    /**
+     * @param delegate factory of the trackers that report pool metrics, or null if metrics are disabled.
+     */
+    public PoolStatsTrackerFactory(MetricsTrackerFactory delegate) {
+        this.delegate = delegate;
+    }
+
+    @Override
+    public MetricsTracker create(String poolName, PoolStats poolStats) {
+        this.poolStats = poolStats;
+        return (delegate != null) ? delegate.create(poolName, poolStats) : new MetricsTracker();
+    }
+
+    /**
+     * @return threads waiting for a connection of the pool, or 0 if the pool was not started yet
+     */
+    public int pendingThreads() {
+        PoolStats stats = poolStats;
+        return (stats != null) ? stats.getPendingThreads() : 0;
+    }
+
+    public int activeConnections() {
+        PoolStats stats = poolStats;
+        return (stats != null) ? stats.getActiveConnections() : 0;
+    }
+
+    public int idleConnections() {
+        PoolStats stats = poolStats;
+        return (stats != null) ? stats.getIdleConnections() : 0;
+    }
+}
@@ -0,0 +1,56 @@
+package com.despegar.jdbc.galera.metrics;
+
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+/**
+ * A counter spread over one slot per processor, picked by the hash of the current thread, so threads borrowing and releasing connections
+ * at once do not all contend on a single atomic. A slot may go negative when a connection is released on another thread than the one that
+ * borrowed it, only the sum makes sense. Reading it adds up every slot, so it is cheap to update and a bit more expensive to read.
+ */
+public class StripedCounter {
+
+    // 16 ints apart, so each slot sits on its own 64 byte cache line
+    private static final int PADDING = 16;
+    private static final int MAX_STRIPES = 64;
+
+    private final AtomicIntegerArray slots;
+    private final int mask;
+
+    public StripedCounter() {
+        this(Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * @param stripes Number of slots, rounded up to a power of two.
+     */
+    public StripedCounter(int stripes) {
+        int size = Integer.highestOneBit(Math.max(1, Math.min(stripes, MAX_STRIPES) * 2 - 1));
+        this.mask = size - 1;
+        this.slots = new AtomicIntegerArray(size * PADDING);
+    }
+
+    public void increment() {
+        slots.incrementAndGet(slot());
+    }
+
+    public void decrement() {
+        slots.decrementAndGet(slot());
+    }
+
+    /**
+     * @return sum of every slot. It is not an atomic snapshot, updates running meanwhile may or may not be seen.
+     */
+    public int get() {
+        int sum = 0;
+        for (int i = 0; i <= mask; i++) {
+            sum += slots.get(i * PADDING);
+        }
+        return sum;
+    }
+
+    private int slot() {
+        long id = Thread.currentThread().getId();
+        int hash = (int) (id ^ (id >>> 32)) * 0x9E3779B9;
+        return ((hash ^ (hash >>> 16)) & mask) * PADDING;
+    }
+}
@@ -0,0 +1,60 @@
+package com.despegar.jdbc.galera.policies;
+
+import com.despegar.jdbc.galera.GaleraNodeView;
+import com.despegar.jdbc.galera.NoHostAvailableException;
+import com.google.common.base.MoreObjects;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Base class for node aware policies. It fails when there is no active node, skips the choice when there is a single one and, as node
+ * names tell nothing about their load, picks a random one when only names are given. Subclasses only decide among two or more candidates.
+ */
+public abstract class AbstractNodeAwareElectionNodePolicy implements NodeAwareElectionNodePolicy {
+    private static final Logger LOG = LoggerFactory.getLogger(AbstractNodeAwareElectionNodePolicy.class);
+
+    @Override
+    public <N extends GaleraNodeView> N chooseGaleraNode(List<N> activeNodes) {
+        if (activeNodes.isEmpty()) {
+            LOG.error("NoHostAvailableException - Active node count is zero");
+            throw new NoHostAvailableException(Collections.<String>emptyList());
+        }
+        if (activeNodes.size() == 1) {
+            return activeNodes.get(0);
+        }
+        return choose(activeNodes);
+    }
+
+    /**
+     * @param candidates two or more active nodes. Implementations must not keep nor modify this list.
+     * @return one of the given nodes
+     */
+    protected abstract <N extends GaleraNodeView> N choose(List<N> candidates);
+
+    @Override
+    public String chooseNode(List<String> activeNodes) {
+        if (activeNodes.isEmpty()) {
+            LOG.error("NoHostAvailableException - Active node count is zero");
+            throw new NoHostAvailableException(activeNodes);
+        }
+        return activeNodes.get(ThreadLocalRandom.current().nextInt(activeNodes.size()));
+    }
+
+    /**
+     * @return the class name without the Policy suffix
+     */
+    @Override
+    public String getName() {
+        String name = getClass().getSimpleName();
+        return name.endsWith("Policy") ? name.substring(0, name.length() - "Policy".length()) : name;
+    }
+
+    @Override
+    public String toString() {
+        return MoreObjects.toStringHelper(this).toString();
+    }
+}
@@ -0,0 +1,84 @@
+package com.despegar.jdbc.galera.policies;
+
+import com.despegar.jdbc.galera.GaleraNodeView;
+import com.google.common.base.MoreObjects;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Skips the nodes that are triggering flow control and lets another policy choose among the rest. A node triggering flow control stalls
+ * writes on the whole cluster, so sending it more work only makes the stall longer. If every active node is throttled, all of them are
+ * candidates: a slow connection is still better than none.
+ */
+public class FlowControlAwarePolicy implements NodeAwareElectionNodePolicy {
+    private static final Logger LOG = LoggerFactory.getLogger(FlowControlAwarePolicy.class);
+
+    private final ElectionNodePolicy delegate;
+    private final NodeAwareElectionNodePolicy nodeAwareDelegate;
+
+    public FlowControlAwarePolicy() {
+        this(new RoundRobinPolicy());
+    }
+
+    /**
+     * @param delegate policy that chooses among the nodes that are not throttled
+     */
+    public FlowControlAwarePolicy(ElectionNodePolicy delegate) {
+        this.delegate = delegate;
+        this.nodeAwareDelegate = NodeAwareElectionNodePolicyAdapter.adapt(delegate);
+    }
+
+    @Override
+    public <N extends GaleraNodeView> N chooseGaleraNode(List<N> activeNodes) {
+        return nodeAwareDelegate.chooseGaleraNode(notThrottled(activeNodes));
+    }
+
+    private static <N extends GaleraNodeView> List<N> notThrottled(List<N> activeNodes) {
+        int throttled = 0;
+        for (int i = 0; i < activeNodes.size(); i++) {
+            if (activeNodes.get(i).isFlowControlThrottled()) {
+                throttled++;
+            }
+        }
+        // Usual case, nothing to copy
+        if (throttled == 0) {
+            return activeNodes;
+        }
+        if (throttled == activeNodes.size()) {
+            LOG.debug("Every active node is triggering flow control");
+            return activeNodes;
+        }
+
+        List<N> candidates = new ArrayList<N>(activeNodes.size() - throttled);
+        for (int i = 0; i < activeNodes.size(); i++) {
+            N galeraNode = activeNodes.get(i);
+            if (!galeraNode.isFlowControlThrottled()) {
+                candidates.add(galeraNode);
+            }
+        }
+        return candidates;
+    }
+
+    /**
+     * Node names do not tell whether they are throttled, so the delegate chooses among all of them.
+     */
+    @Override
+    public String chooseNode(List<String> activeNodes) {
+        return delegate.chooseNode(activeNodes);
+    }
+
+    @Override
+    public String getName() {
+        return "FlowControlAware(" + delegate.getName() + ")";
+    }
+
+    @Override
+    public String toString() {
+        return MoreObjects.toStringHelper(this)
+                .add("delegate", delegate)
+                .toString();
+    }
+}
@@ -0,0 +1,91 @@
+package com.despegar.jdbc.galera.policies;
+
+import com.despegar.jdbc.galera.GaleraNodeView;
+import com.despegar.jdbc.galera.GaleraStatus;
+import com.google.common.base.MoreObjects;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Skips the nodes that lag behind their peers and lets another policy choose among the rest. Reads on a lagging node return stale data
+ * or, with wsrep_sync_wait, block until it catches up. A node lags when, on last discovery, its wsrep_last_committed was too far behind the
+ * most up to date node or its wsrep_local_recv_queue was too long. If every node lags, all of them are candidates.
+ */
+public class LagAwarePolicy implements NodeAwareElectionNodePolicy {
+    private static final Logger LOG = LoggerFactory.getLogger(LagAwarePolicy.class);
+
+    private final ElectionNodePolicy delegate;
+    private final NodeAwareElectionNodePolicy nodeAwareDelegate;
+    private final long maxSeqnoLag;
+    private final long maxRecvQueue;
+
+    /**
+     * @param delegate     policy that chooses among the nodes that do not lag
+     * @param maxSeqnoLag  max write sets behind the most up to date node, negative to ignore it
+     * @param maxRecvQueue max wsrep_local_recv_queue length, negative to ignore it
+     */
+    public LagAwarePolicy(ElectionNodePolicy delegate, long maxSeqnoLag, long maxRecvQueue) {
+        this.delegate = delegate;
+        this.nodeAwareDelegate = NodeAwareElectionNodePolicyAdapter.adapt(delegate);
+        this.maxSeqnoLag = maxSeqnoLag;
+        this.maxRecvQueue = maxRecvQueue;
+    }
+
+    @Override
+    public <N extends GaleraNodeView> N chooseGaleraNode(List<N> activeNodes) {
+        List<N> candidates = null;
+        for (int i = 0; i < activeNodes.size(); i++) {
+            N galeraNode = activeNodes.get(i);
+            if (isLagging(galeraNode)) {
+                if (candidates == null) {
+                    candidates = new ArrayList<N>(activeNodes.subList(0, i));
+                }
+            } else if (candidates != null) {
+                candidates.add(galeraNode);
+            }
+        }
+
+        // Usual case, nothing lags
+        if (candidates == null) {
+            return nodeAwareDelegate.chooseGaleraNode(activeNodes);
+        }
+        if (candidates.isEmpty()) {
+            LOG.debug("Every active node is lagging");
+            return nodeAwareDelegate.chooseGaleraNode(activeNodes);
+        }
+        return nodeAwareDelegate.chooseGaleraNode(candidates);
+    }
+
+    private boolean isLagging(GaleraNodeView galeraNode) {
+        if (maxSeqnoLag >= 0 && galeraNode.seqnoLag() > maxSeqnoLag) {
+            return true;
+        }
+        GaleraStatus status = galeraNode.lastStatus();
+        return maxRecvQueue >= 0 && status != null && status.recvQueue() > maxRecvQueue;
+    }
+
+    /**
+     * Node names do not tell whether they lag, so the delegate chooses among all of them.
+     */
+    @Override
+    public String chooseNode(List<String> activeNodes) {
+        return delegate.chooseNode(activeNodes);
+    }
+
+    @Override
+    public String getName() {
+        return "LagAware(" + delegate.getName() + ")";
+    }
+
+    @Override
+    public String toString() {
+        return MoreObjects.toStringHelper(this)
+                .add("delegate", delegate)
+                .add("maxSeqnoLag", maxSeqnoLag)
+                .add("maxRecvQueue", maxRecvQueue)
+                .toString();
+    }
+}
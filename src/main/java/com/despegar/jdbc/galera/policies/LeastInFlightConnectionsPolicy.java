@@ -0,0 +1,37 @@
+package com.despegar.jdbc.galera.policies;
+
+import com.despegar.jdbc.galera.GaleraNodeView;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Select the active galera node with fewer borrowed connections. Slower nodes hold their connections longer, so they get less traffic.
+ * Ties are broken starting the scan at a random node.
+ */
+public class LeastInFlightConnectionsPolicy extends AbstractNodeAwareElectionNodePolicy {
+    private static final Logger LOG = LoggerFactory.getLogger(LeastInFlightConnectionsPolicy.class);
+
+    @Override
+    protected <N extends GaleraNodeView> N choose(List<N> candidates) {
+        int candidatesCount = candidates.size();
+        int start = ThreadLocalRandom.current().nextInt(candidatesCount);
+        N selectedNode = null;
+        int minInFlight = Integer.MAX_VALUE;
+        for (int i = 0; i < candidatesCount; i++) {
+            N galeraNode = candidates.get((start + i) % candidatesCount);
+            int inFlight = galeraNode.inFlightConnections();
+            if (inFlight < minInFlight) {
+                minInFlight = inFlight;
+                selectedNode = galeraNode;
+            }
+        }
+
+        if (LOG.isDebugEnabled()) {
+            LOG.debug("Selected least in flight connections node {} ({} in flight)", selectedNode.name(), minInFlight);
+        }
+        return selectedNode;
+    }
+}
@@ -3,22 +3,27 @@ package com.despegar.jdbc.galera.policies;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import java.util.Arrays;
 import java.util.List;
 
 /**
- * We choose master choosing always the first active node sorted alphabetically
+ * We choose master choosing always the first active node sorted alphabetically. See {@link SingleWriterPolicy}, which gets the master
+ * elected by GaleraClient on each topology change instead of looking for it on every connection.
  */
 public class MasterSortingNodesPolicy implements ElectionNodePolicy {
     private static final Logger LOG = LoggerFactory.getLogger(MasterSortingNodesPolicy.class);
 
     public String chooseNode(List<String> activeNodes) {
-
-        String[] nodes = activeNodes.toArray(new String[activeNodes.size()]);
-        Arrays.sort(nodes);
-        String master = nodes[0];
-
-        LOG.info("Master node selected {}", master);
+        String master = activeNodes.get(0);
+        for (int i = 1; i < activeNodes.size(); i++) {
+            String node = activeNodes.get(i);
+            if (node.compareTo(master) < 0) {
+                master = node;
+            }
+        }
+
+        if (LOG.isDebugEnabled()) {
+            LOG.debug("Master node selected {}", master);
+        }
 
         return master;
     }
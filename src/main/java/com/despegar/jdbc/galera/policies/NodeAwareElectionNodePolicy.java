@@ -0,0 +1,21 @@
+package com.despegar.jdbc.galera.policies;
+
+import com.despegar.jdbc.galera.GaleraNodeView;
+
+import java.util.List;
+
+/**
+ * A policy that chooses among read only views of the active nodes, so it can take their status, pool counters and latency into account.
+ * GaleraClient always calls {@link #chooseGaleraNode(List)} on these policies, {@link #chooseNode(List)} is only kept for callers that just
+ * have node names. Name based policies can be used where a node aware one is needed through {@link NodeAwareElectionNodePolicyAdapter}.
+ * {@link AbstractNodeAwareElectionNodePolicy} is a convenient base class to write your own.
+ */
+public interface NodeAwareElectionNodePolicy extends ElectionNodePolicy {
+
+    /**
+     * @param activeNodes Active nodes. Implementations must not keep nor modify this list.
+     * @return one of the given nodes
+     */
+    <N extends GaleraNodeView> N chooseGaleraNode(List<N> activeNodes);
+
+}
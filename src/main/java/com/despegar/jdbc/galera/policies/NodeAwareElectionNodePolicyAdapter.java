@@ -0,0 +1,64 @@
+package com.despegar.jdbc.galera.policies;
+
+import com.despegar.jdbc.galera.GaleraNodeView;
+import com.google.common.base.MoreObjects;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Lets a name based {@link ElectionNodePolicy} be used where a {@link NodeAwareElectionNodePolicy} is needed: it chooses among the names of
+ * the candidates and gets back the chosen node.
+ */
+public class NodeAwareElectionNodePolicyAdapter implements NodeAwareElectionNodePolicy {
+    private final ElectionNodePolicy policy;
+
+    private NodeAwareElectionNodePolicyAdapter(ElectionNodePolicy policy) {
+        this.policy = policy;
+    }
+
+    /**
+     * @return the given policy if it is node aware already, otherwise an adapter for it
+     */
+    public static NodeAwareElectionNodePolicy adapt(ElectionNodePolicy policy) {
+        if (policy instanceof NodeAwareElectionNodePolicy) {
+            return (NodeAwareElectionNodePolicy) policy;
+        }
+        return new NodeAwareElectionNodePolicyAdapter(policy);
+    }
+
+    /**
+     * @return the chosen node, or null if the adapted policy chose a name that is not one of the candidates
+     */
+    @Override
+    public <N extends GaleraNodeView> N chooseGaleraNode(List<N> activeNodes) {
+        List<String> names = new ArrayList<String>(activeNodes.size());
+        for (int i = 0; i < activeNodes.size(); i++) {
+            names.add(activeNodes.get(i).name());
+        }
+        String chosen = policy.chooseNode(names);
+        for (int i = 0; i < activeNodes.size(); i++) {
+            if (activeNodes.get(i).name().equals(chosen)) {
+                return activeNodes.get(i);
+            }
+        }
+        return null;
+    }
+
+    @Override
+    public String chooseNode(List<String> activeNodes) {
+        return policy.chooseNode(activeNodes);
+    }
+
+    @Override
+    public String getName() {
+        return policy.getName();
+    }
+
+    @Override
+    public String toString() {
+        return MoreObjects.toStringHelper(this)
+                .add("policy", policy)
+                .toString();
+    }
+}
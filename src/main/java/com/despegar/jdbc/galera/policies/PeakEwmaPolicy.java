@@ -0,0 +1,41 @@
+package com.despegar.jdbc.galera.policies;
+
+import com.despegar.jdbc.galera.GaleraNodeView;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Select the active galera node with the lowest expected cost: the peak EWMA of its connection acquire plus usage latency, times its in
+ * flight connections + 1. A node with a degraded disk or a noisy neighbour holds connections longer, so it quickly gets less traffic.
+ */
+public class PeakEwmaPolicy extends AbstractNodeAwareElectionNodePolicy {
+    private static final Logger LOG = LoggerFactory.getLogger(PeakEwmaPolicy.class);
+
+    @Override
+    protected <N extends GaleraNodeView> N choose(List<N> candidates) {
+        int candidatesCount = candidates.size();
+        int start = ThreadLocalRandom.current().nextInt(candidatesCount);
+        N selectedNode = null;
+        double minCost = Double.MAX_VALUE;
+        for (int i = 0; i < candidatesCount; i++) {
+            N galeraNode = candidates.get((start + i) % candidatesCount);
+            double cost = cost(galeraNode);
+            if (cost < minCost) {
+                minCost = cost;
+                selectedNode = galeraNode;
+            }
+        }
+
+        if (LOG.isDebugEnabled()) {
+            LOG.debug("Selected peak EWMA node {} (cost {})", selectedNode.name(), minCost);
+        }
+        return selectedNode;
+    }
+
+    private double cost(GaleraNodeView galeraNode) {
+        return (galeraNode.acquireLatency() + galeraNode.usageLatency()) * (galeraNode.inFlightConnections() + 1);
+    }
+}
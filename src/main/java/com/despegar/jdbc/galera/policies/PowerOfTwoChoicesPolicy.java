@@ -0,0 +1,44 @@
+package com.despegar.jdbc.galera.policies;
+
+import com.despegar.jdbc.galera.GaleraNodeView;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Samples two distinct active galera nodes at random and selects the less loaded one, load being its borrowed connections plus the
+ * threads waiting on its pool. It balances almost as well as scanning every node, but each selection only reads two nodes and shares no
+ * counter between threads.
+ */
+public class PowerOfTwoChoicesPolicy extends AbstractNodeAwareElectionNodePolicy {
+    private static final Logger LOG = LoggerFactory.getLogger(PowerOfTwoChoicesPolicy.class);
+
+    @Override
+    protected <N extends GaleraNodeView> N choose(List<N> candidates) {
+        int candidatesCount = candidates.size();
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        int first = random.nextInt(candidatesCount);
+        int second = random.nextInt(candidatesCount - 1);
+        if (second >= first) {
+            second++;
+        }
+
+        N firstNode = candidates.get(first);
+        N secondNode = candidates.get(second);
+        int firstLoad = load(firstNode);
+        int secondLoad = load(secondNode);
+        N selectedNode = (secondLoad < firstLoad) ? secondNode : firstNode;
+
+        if (LOG.isDebugEnabled()) {
+            LOG.debug("Selected node {} between {} (load {}) and {} (load {})", selectedNode.name(), firstNode.name(), firstLoad, secondNode.name(),
+                      secondLoad);
+        }
+        return selectedNode;
+    }
+
+    private static int load(GaleraNodeView galeraNode) {
+        return galeraNode.inFlightConnections() + galeraNode.pendingConnections();
+    }
+}
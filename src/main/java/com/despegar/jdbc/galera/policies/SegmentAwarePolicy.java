@@ -0,0 +1,110 @@
+package com.despegar.jdbc.galera.policies;
+
+import com.despegar.jdbc.galera.GaleraNodeView;
+import com.despegar.jdbc.galera.GaleraStatus;
+import com.google.common.base.MoreObjects;
+import com.google.common.collect.ImmutableMap;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Prefers the nodes in the client segment (galera gmcast.segment, usually one per data center) and lets another policy choose among them.
+ * Traffic only spills over to the other segments when there is no active local node or every local node is saturated.
+ * <p>
+ * Node segments are taken from the configured ones or, for the rest, from discovery (see {@link GaleraStatus#segment()}).
+ */
+public class SegmentAwarePolicy implements NodeAwareElectionNodePolicy {
+    private static final Logger LOG = LoggerFactory.getLogger(SegmentAwarePolicy.class);
+
+    private final ElectionNodePolicy delegate;
+    private final NodeAwareElectionNodePolicy nodeAwareDelegate;
+    private final int localSegment;
+    private final Map<String, Integer> nodeSegments;
+
+    public SegmentAwarePolicy(ElectionNodePolicy delegate, int localSegment) {
+        this(delegate, localSegment, Collections.<String, Integer>emptyMap());
+    }
+
+    /**
+     * @param delegate     policy that chooses among the selected nodes
+     * @param localSegment segment of this client
+     * @param nodeSegments segment per host:port. They take precedence over discovered ones.
+     */
+    public SegmentAwarePolicy(ElectionNodePolicy delegate, int localSegment, Map<String, Integer> nodeSegments) {
+        this.delegate = delegate;
+        this.nodeAwareDelegate = NodeAwareElectionNodePolicyAdapter.adapt(delegate);
+        this.localSegment = localSegment;
+        this.nodeSegments = ImmutableMap.copyOf(nodeSegments);
+    }
+
+    @Override
+    public <N extends GaleraNodeView> N chooseGaleraNode(List<N> activeNodes) {
+        List<N> localNodes = null;
+        boolean localCapacity = false;
+        for (int i = 0; i < activeNodes.size(); i++) {
+            N galeraNode = activeNodes.get(i);
+            if (segment(galeraNode) == localSegment) {
+                if (localNodes == null) {
+                    localNodes = new ArrayList<N>(activeNodes.size());
+                }
+                localNodes.add(galeraNode);
+                localCapacity |= !galeraNode.isSaturated();
+            }
+        }
+
+        if (localNodes == null || !localCapacity) {
+            if (LOG.isDebugEnabled()) {
+                LOG.debug("No local capacity on segment {} ({} local nodes), spilling over to every segment", localSegment,
+                          localNodes == null ? 0 : localNodes.size());
+            }
+            return nodeAwareDelegate.chooseGaleraNode(activeNodes);
+        }
+        return nodeAwareDelegate.chooseGaleraNode(localNodes.size() == activeNodes.size() ? activeNodes : localNodes);
+    }
+
+    /**
+     * @return the node segment or -1 if it is unknown
+     */
+    public int segment(GaleraNodeView galeraNode) {
+        Integer segment = nodeSegments.get(galeraNode.name());
+        if (segment != null) {
+            return segment;
+        }
+        GaleraStatus status = galeraNode.lastStatus();
+        return (status != null) ? status.segment() : -1;
+    }
+
+    /**
+     * Node names with no configured segment are not known to be local, so the delegate chooses among all of them unless some are.
+     */
+    @Override
+    public String chooseNode(List<String> activeNodes) {
+        List<String> localNodes = new ArrayList<String>(activeNodes.size());
+        for (String node : activeNodes) {
+            Integer segment = nodeSegments.get(node);
+            if (segment != null && segment == localSegment) {
+                localNodes.add(node);
+            }
+        }
+        return delegate.chooseNode(localNodes.isEmpty() ? activeNodes : localNodes);
+    }
+
+    @Override
+    public String getName() {
+        return "SegmentAware(" + delegate.getName() + ")";
+    }
+
+    @Override
+    public String toString() {
+        return MoreObjects.toStringHelper(this)
+                .add("delegate", delegate)
+                .add("localSegment", localSegment)
+                .add("nodeSegments", nodeSegments)
+                .toString();
+    }
+}
@@ -0,0 +1,53 @@
+package com.despegar.jdbc.galera.policies;
+
+import com.despegar.jdbc.galera.GaleraNodeView;
+import com.despegar.jdbc.galera.NoHostAvailableException;
+import com.google.common.base.MoreObjects;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Sends every connection to a single writer, the first active node sorted alphabetically (same as {@link MasterSortingNodesPolicy}), so
+ * writes never conflict on certification. GaleraClient keeps active nodes sorted by name, so the writer is elected once per topology change
+ * and choosing it takes no sorting, allocation nor logging. When the writer goes down the next node takes over as soon as the new topology
+ * is published, see {@link com.despegar.jdbc.galera.listener.WriterChangeListener#onSelectingNewMaster(String, String)}.
+ */
+public class SingleWriterPolicy implements NodeAwareElectionNodePolicy {
+    private static final Logger LOG = LoggerFactory.getLogger(SingleWriterPolicy.class);
+
+    private final MasterSortingNodesPolicy masterSortingNodesPolicy = new MasterSortingNodesPolicy();
+
+    /**
+     * @param activeNodes Active nodes sorted by name, as GaleraClient gives them.
+     */
+    @Override
+    public <N extends GaleraNodeView> N chooseGaleraNode(List<N> activeNodes) {
+        if (activeNodes.isEmpty()) {
+            LOG.error("NoHostAvailableException - Active node count is zero");
+            throw new NoHostAvailableException(Collections.<String>emptyList());
+        }
+        return activeNodes.get(0);
+    }
+
+    @Override
+    public String chooseNode(List<String> activeNodes) {
+        if (activeNodes.isEmpty()) {
+            LOG.error("NoHostAvailableException - Active node count is zero");
+            throw new NoHostAvailableException(activeNodes);
+        }
+        return masterSortingNodesPolicy.chooseNode(activeNodes);
+    }
+
+    @Override
+    public String getName() {
+        return "SingleWriter";
+    }
+
+    @Override
+    public String toString() {
+        return MoreObjects.toStringHelper(this).toString();
+    }
+}
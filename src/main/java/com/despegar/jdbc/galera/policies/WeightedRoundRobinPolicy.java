@@ -0,0 +1,215 @@
+package com.despegar.jdbc.galera.policies;
+
+import com.despegar.jdbc.galera.GaleraNodeView;
+import com.despegar.jdbc.galera.GaleraStatus;
+import com.despegar.jdbc.galera.NoHostAvailableException;
+import com.google.common.base.MoreObjects;
+import com.google.common.collect.ImmutableMap;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Smooth weighted round robin (as nginx does it): each node gets borrows in proportion to its weight, interleaved instead of in bursts.
+ * Weights are configured per host:port, e.g. to send four times more traffic to a 64 cores node than to a 16 cores one.
+ * <p>
+ * In dynamic mode the configured weight is scaled down on every selection by the node statistics: usage latency compared to the fastest
+ * node, wsrep_local_recv_queue and Threads_connected per unit of weight compared to the least connected node.
+ */
+public class WeightedRoundRobinPolicy extends AbstractNodeAwareElectionNodePolicy {
+    private static final Logger LOG = LoggerFactory.getLogger(WeightedRoundRobinPolicy.class);
+
+    /**
+     * Dynamic weights never go below this fraction of the configured weight, so a penalized node still gets some traffic and its
+     * statistics keep being refreshed.
+     */
+    private static final double MIN_DYNAMIC_FACTOR = 0.01;
+
+    private final Map<String, Integer> weights;
+    private final int defaultWeight;
+    private final boolean dynamic;
+
+    /**
+     * Smoothing state of the last candidates seen. Topology snapshots are immutable, so it is only rebuilt when they change.
+     */
+    private volatile Smoothing smoothing = new Smoothing(Collections.<GaleraNodeView>emptyList(), new double[0], null);
+
+    /**
+     * @param weights weight per host:port. Nodes without weight get 1.
+     */
+    public WeightedRoundRobinPolicy(Map<String, Integer> weights) {
+        this(weights, 1, false);
+    }
+
+    /**
+     * @param weights       weight per host:port
+     * @param defaultWeight weight of the nodes not in weights, e.g. nodes found by discovery
+     * @param dynamic       whether weights are scaled by node latency, recv queue and threads connected
+     */
+    public WeightedRoundRobinPolicy(Map<String, Integer> weights, int defaultWeight, boolean dynamic) {
+        for (Map.Entry<String, Integer> weight : weights.entrySet()) {
+            if (weight.getValue() <= 0) {
+                throw new IllegalArgumentException("Weight of " + weight.getKey() + " must be positive");
+            }
+        }
+        if (defaultWeight <= 0) {
+            throw new IllegalArgumentException("Default weight must be positive");
+        }
+        this.weights = ImmutableMap.copyOf(weights);
+        this.defaultWeight = defaultWeight;
+        this.dynamic = dynamic;
+    }
+
+    @Override
+    protected <N extends GaleraNodeView> N choose(List<N> activeNodes) {
+        Smoothing smoothing = smoothing(activeNodes);
+        double[] effectiveWeights = dynamic ? dynamicWeights(activeNodes, smoothing.weights) : smoothing.weights;
+        N selectedNode = activeNodes.get(smoothing.select(effectiveWeights));
+
+        if (LOG.isDebugEnabled()) {
+            LOG.debug("Selected weighted round robin node {} (weights {})", selectedNode.name(), Arrays.toString(effectiveWeights));
+        }
+        return selectedNode;
+    }
+
+    private Smoothing smoothing(List<? extends GaleraNodeView> activeNodes) {
+        Smoothing current = smoothing;
+        if (current.nodes != activeNodes) {
+            // A new topology snapshot, or candidates filtered by a decorator: nodes seen before keep their smoothing state. Threads racing
+            // here build their own state and the last one wins, which only costs a bit of smoothing on topology changes.
+            int activeNodesCount = activeNodes.size();
+            double[] configuredWeights = new double[activeNodesCount];
+            for (int i = 0; i < activeNodesCount; i++) {
+                configuredWeights[i] = weight(activeNodes.get(i).name());
+            }
+            current = new Smoothing(activeNodes, configuredWeights, current);
+            smoothing = current;
+        }
+        return current;
+    }
+
+    private static double[] dynamicWeights(List<? extends GaleraNodeView> activeNodes, double[] configuredWeights) {
+        int activeNodesCount = activeNodes.size();
+        double[] effectiveWeights = Arrays.copyOf(configuredWeights, activeNodesCount);
+
+        double minLatency = Double.MAX_VALUE;
+        double minThreadsPerWeight = Double.MAX_VALUE;
+        for (int i = 0; i < activeNodesCount; i++) {
+            GaleraNodeView galeraNode = activeNodes.get(i);
+            double latency = galeraNode.usageLatency();
+            if (latency > 0) {
+                minLatency = Math.min(minLatency, latency);
+            }
+            GaleraStatus status = galeraNode.lastStatus();
+            if (status != null && status.threadsConnected() >= 0) {
+                minThreadsPerWeight = Math.min(minThreadsPerWeight, status.threadsConnected() / effectiveWeights[i]);
+            }
+        }
+
+        for (int i = 0; i < activeNodesCount; i++) {
+            GaleraNodeView galeraNode = activeNodes.get(i);
+            double factor = 1;
+            double latency = galeraNode.usageLatency();
+            if (latency > 0) {
+                factor *= minLatency / latency;
+            }
+            GaleraStatus status = galeraNode.lastStatus();
+            if (status != null) {
+                factor /= 1 + status.recvQueue();
+                if (status.threadsConnected() >= 0) {
+                    factor *= (minThreadsPerWeight + 1) / (status.threadsConnected() / effectiveWeights[i] + 1);
+                }
+            }
+            effectiveWeights[i] *= Math.max(factor, MIN_DYNAMIC_FACTOR);
+        }
+        return effectiveWeights;
+    }
+
+    private int weight(String node) {
+        Integer weight = weights.get(node);
+        return (weight != null) ? weight : defaultWeight;
+    }
+
+    /**
+     * Picks a node at random in proportion to the configured weights, as node names tell nothing about their statistics.
+     */
+    @Override
+    public String chooseNode(List<String> activeNodes) {
+        if (activeNodes.isEmpty()) {
+            LOG.error("NoHostAvailableException - Active node count is zero");
+            throw new NoHostAvailableException(activeNodes);
+        }
+        long total = 0;
+        for (String node : activeNodes) {
+            total += weight(node);
+        }
+        long target = (long) (ThreadLocalRandom.current().nextDouble() * total);
+        for (String node : activeNodes) {
+            target -= weight(node);
+            if (target < 0) {
+                return node;
+            }
+        }
+        return activeNodes.get(activeNodes.size() - 1);
+    }
+
+    @Override
+    public String getName() {
+        return dynamic ? "DynamicWeightedRoundRobin" : "WeightedRoundRobin";
+    }
+
+    @Override
+    public String toString() {
+        return MoreObjects.toStringHelper(this)
+                .add("weights", weights)
+                .add("defaultWeight", defaultWeight)
+                .add("dynamic", dynamic)
+                .toString();
+    }
+
+    /**
+     * Current weights of a list of candidates. Only the smooth weighted round robin step runs under its lock.
+     */
+    private static final class Smoothing {
+        private final List<? extends GaleraNodeView> nodes;
+        private final double[] weights;
+        private final double[] currentWeights;
+
+        Smoothing(List<? extends GaleraNodeView> nodes, double[] weights, Smoothing previous) {
+            this.nodes = nodes;
+            this.weights = weights;
+            this.currentWeights = new double[weights.length];
+            if (previous != null) {
+                previous.copyTo(this);
+            }
+        }
+
+        private synchronized void copyTo(Smoothing next) {
+            for (int i = 0; i < next.currentWeights.length; i++) {
+                int previousIndex = nodes.indexOf(next.nodes.get(i));
+                if (previousIndex >= 0) {
+                    next.currentWeights[i] = currentWeights[previousIndex];
+                }
+            }
+        }
+
+        synchronized int select(double[] effectiveWeights) {
+            double total = 0;
+            int selected = 0;
+            for (int i = 0; i < currentWeights.length; i++) {
+                currentWeights[i] += effectiveWeights[i];
+                total += effectiveWeights[i];
+                if (currentWeights[i] > currentWeights[selected]) {
+                    selected = i;
+                }
+            }
+            currentWeights[selected] -= total;
+            return selected;
+        }
+    }
+}
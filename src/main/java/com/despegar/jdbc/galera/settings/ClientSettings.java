@@ -11,19 +11,45 @@ public class ClientSettings {
     public final int retriesToGetConnection;
     public final GaleraClientListener galeraClientListener;
     public final ElectionNodePolicy defaultNodeSelectionPolicy;
+    public final ElectionNodePolicy readNodeSelectionPolicy;
+    public final ElectionNodePolicy writeNodeSelectionPolicy;
 
     /**
      * Onyl enabled this feature for test purpouses. It disables discovery capabilities and checks for status nodes too.
      */
     public final boolean testMode;
 
+    /**
+     * When this flag is true, connections only borrow a connection from a node pool when their first statement runs.
+     */
+    public final boolean lazyConnections;
+
+    /**
+     * When this flag is true, getConnection() runs plain reads in autocommit on a reader node and everything else on the writer node.
+     */
+    public final boolean statementRouting;
+
     public ClientSettings(List<String> seeds, int retriesToGetConnection, GaleraClientListener galeraClientListener,
                           ElectionNodePolicy defaultNodeSelectionPolicy, boolean testMode) {
-        this.seeds = seeds;
-        this.retriesToGetConnection = retriesToGetConnection;
-        this.galeraClientListener = galeraClientListener;
-        this.defaultNodeSelectionPolicy = defaultNodeSelectionPolicy;
-        this.testMode = testMode;
+        this(newBuilder().seeds(seeds).retriesToGetConnection(retriesToGetConnection).galeraClientListener(galeraClientListener)
+                     .defaultNodeSelectionPolicy(defaultNodeSelectionPolicy).testMode(testMode));
+    }
+
+    private ClientSettings(Builder builder) {
+        seeds = builder.seeds;
+        retriesToGetConnection = builder.retriesToGetConnection;
+        galeraClientListener = builder.galeraClientListener;
+        defaultNodeSelectionPolicy = builder.defaultNodeSelectionPolicy;
+        // Reads and writes use the default policy unless they have their own
+        readNodeSelectionPolicy = (builder.readNodeSelectionPolicy != null) ? builder.readNodeSelectionPolicy : builder.defaultNodeSelectionPolicy;
+        writeNodeSelectionPolicy = (builder.writeNodeSelectionPolicy != null) ? builder.writeNodeSelectionPolicy : builder.defaultNodeSelectionPolicy;
+        testMode = builder.testMode;
+        lazyConnections = builder.lazyConnections;
+        statementRouting = builder.statementRouting;
+    }
+
+    public static Builder newBuilder() {
+        return new Builder();
     }
 
     @Override
@@ -34,7 +60,75 @@ public class ClientSettings {
                 .add("retriesToGetConnection", retriesToGetConnection)
                 .add("galeraClientListener", galeraClientListener)
                 .add("defaultNodeSelectionPolicy", defaultNodeSelectionPolicy)
+                .add("readNodeSelectionPolicy", readNodeSelectionPolicy)
+                .add("writeNodeSelectionPolicy", writeNodeSelectionPolicy)
                 .add("testMode", testMode)
+                .add("lazyConnections", lazyConnections)
+                .add("statementRouting", statementRouting)
                 .toString();
     }
+
+    public static final class Builder {
+        private List<String> seeds;
+        private int retriesToGetConnection;
+        private GaleraClientListener galeraClientListener;
+        private ElectionNodePolicy defaultNodeSelectionPolicy;
+        private ElectionNodePolicy readNodeSelectionPolicy;
+        private ElectionNodePolicy writeNodeSelectionPolicy;
+        private boolean testMode;
+        private boolean lazyConnections;
+        private boolean statementRouting;
+
+        private Builder() {
+        }
+
+        public Builder seeds(List<String> seeds) {
+            this.seeds = seeds;
+            return this;
+        }
+
+        public Builder retriesToGetConnection(int retriesToGetConnection) {
+            this.retriesToGetConnection = retriesToGetConnection;
+            return this;
+        }
+
+        public Builder galeraClientListener(GaleraClientListener galeraClientListener) {
+            this.galeraClientListener = galeraClientListener;
+            return this;
+        }
+
+        public Builder defaultNodeSelectionPolicy(ElectionNodePolicy defaultNodeSelectionPolicy) {
+            this.defaultNodeSelectionPolicy = defaultNodeSelectionPolicy;
+            return this;
+        }
+
+        public Builder readNodeSelectionPolicy(ElectionNodePolicy readNodeSelectionPolicy) {
+            this.readNodeSelectionPolicy = readNodeSelectionPolicy;
+            return this;
+        }
+
+        public Builder writeNodeSelectionPolicy(ElectionNodePolicy writeNodeSelectionPolicy) {
+            this.writeNodeSelectionPolicy = writeNodeSelectionPolicy;
+            return this;
+        }
+
+        public Builder testMode(boolean testMode) {
+            this.testMode = testMode;
+            return this;
+        }
+
+        public Builder lazyConnections(boolean lazyConnections) {
+            this.lazyConnections = lazyConnections;
+            return this;
+        }
+
+        public Builder statementRouting(boolean statementRouting) {
+            this.statementRouting = statementRouting;
+            return this;
+        }
+
+        public ClientSettings build() {
+            return new ClientSettings(this);
+        }
+    }
 }
@@ -3,6 +3,10 @@ package com.despegar.jdbc.galera.settings;
 import com.google.common.base.MoreObjects;
 
 public class DiscoverSettings {
+    public static final long DEFAULT_DISCOVER_TIMEOUT = 10000;
+    public static final long DEFAULT_FLOW_CONTROL_RECV_QUEUE_HIGH = 16;
+    public static final long DEFAULT_FLOW_CONTROL_RECV_QUEUE_LOW = 8;
+
     public final long discoverPeriod;
 
     /**
@@ -10,9 +14,68 @@ public class DiscoverSettings {
      */
     public final boolean ignoreDonor;
 
+    /**
+     * Deadline (in millis) for each node status probe. Nodes are probed in parallel, so a discovery cycle takes at most this long.
+     */
+    public final long discoverTimeout;
+
+    /**
+     * How node status is queried on each discovery, see {@link StatusProbeMode}.
+     */
+    public final StatusProbeMode statusProbeMode;
+
+    /**
+     * How discovery connects to nodes to query their status, see {@link StatusChannel}.
+     */
+    public final StatusChannel statusChannel;
+
+    /**
+     * How long (in millis) a request thread that failed to get a connection waits for the forced discovery. 0 means it fails fast.
+     */
+    public final long forcedDiscoveryTimeout;
+
+    /**
+     * How long (in millis) a non Primary or not Synced node keeps its pool before closing it. 0 means it is closed right away.
+     */
+    public final long drainGracePeriod;
+
+    /**
+     * A node whose wsrep_local_recv_queue reaches this length (or that sent a flow control pause since last discovery) is flow control
+     * throttled. Default: 16, galera gcs.fc_limit default.
+     */
+    public final long flowControlRecvQueueHigh;
+
+    /**
+     * A throttled node is back once its wsrep_local_recv_queue drains to this length and it did not send flow control pauses since last
+     * discovery. Default: 8
+     */
+    public final long flowControlRecvQueueLow;
+
+    /**
+     * When this flag is true, discovery also fetches wsrep_provider_options to know each node gmcast.segment.
+     */
+    public final boolean discoverSegments;
+
     public DiscoverSettings(long discoverPeriod, boolean ignoreDonor) {
-        this.discoverPeriod = discoverPeriod;
-        this.ignoreDonor = ignoreDonor;
+        this(newBuilder().discoverPeriod(discoverPeriod).ignoreDonor(ignoreDonor));
+    }
+
+    private DiscoverSettings(Builder builder) {
+        discoverPeriod = builder.discoverPeriod;
+        ignoreDonor = builder.ignoreDonor;
+        discoverTimeout = (builder.discoverTimeout > 0) ? builder.discoverTimeout : DEFAULT_DISCOVER_TIMEOUT;
+        statusProbeMode = builder.statusProbeMode;
+        forcedDiscoveryTimeout = builder.forcedDiscoveryTimeout;
+        statusChannel = builder.statusChannel;
+        drainGracePeriod = builder.drainGracePeriod;
+        flowControlRecvQueueHigh = (builder.flowControlRecvQueueHigh > 0) ? builder.flowControlRecvQueueHigh : DEFAULT_FLOW_CONTROL_RECV_QUEUE_HIGH;
+        flowControlRecvQueueLow = Math.min(builder.flowControlRecvQueueLow >= 0 ? builder.flowControlRecvQueueLow : DEFAULT_FLOW_CONTROL_RECV_QUEUE_LOW,
+                                           flowControlRecvQueueHigh);
+        discoverSegments = builder.discoverSegments;
+    }
+
+    public static Builder newBuilder() {
+        return new Builder();
     }
 
     @Override
@@ -20,6 +83,84 @@ public class DiscoverSettings {
         return MoreObjects.toStringHelper(this)
                 .add("discoverPeriod", discoverPeriod)
                 .add("ignoreDonor", ignoreDonor)
+                .add("discoverTimeout", discoverTimeout)
+                .add("statusProbeMode", statusProbeMode)
+                .add("statusChannel", statusChannel)
+                .add("forcedDiscoveryTimeout", forcedDiscoveryTimeout)
+                .add("drainGracePeriod", drainGracePeriod)
+                .add("flowControlRecvQueueHigh", flowControlRecvQueueHigh)
+                .add("flowControlRecvQueueLow", flowControlRecvQueueLow)
+                .add("discoverSegments", discoverSegments)
                 .toString();
     }
+
+    public static final class Builder {
+        private long discoverPeriod;
+        private boolean ignoreDonor;
+        private long discoverTimeout;
+        private StatusProbeMode statusProbeMode = StatusProbeMode.SHOW_STATUS;
+        private long forcedDiscoveryTimeout;
+        private StatusChannel statusChannel = StatusChannel.POOL;
+        private long drainGracePeriod;
+        private long flowControlRecvQueueHigh;
+        private long flowControlRecvQueueLow = -1;
+        private boolean discoverSegments;
+
+        private Builder() {
+        }
+
+        public Builder discoverPeriod(long discoverPeriod) {
+            this.discoverPeriod = discoverPeriod;
+            return this;
+        }
+
+        public Builder ignoreDonor(boolean ignoreDonor) {
+            this.ignoreDonor = ignoreDonor;
+            return this;
+        }
+
+        public Builder discoverTimeout(long discoverTimeout) {
+            this.discoverTimeout = discoverTimeout;
+            return this;
+        }
+
+        public Builder statusProbeMode(StatusProbeMode statusProbeMode) {
+            this.statusProbeMode = statusProbeMode;
+            return this;
+        }
+
+        public Builder forcedDiscoveryTimeout(long forcedDiscoveryTimeout) {
+            this.forcedDiscoveryTimeout = forcedDiscoveryTimeout;
+            return this;
+        }
+
+        public Builder statusChannel(StatusChannel statusChannel) {
+            this.statusChannel = statusChannel;
+            return this;
+        }
+
+        public Builder drainGracePeriod(long drainGracePeriod) {
+            this.drainGracePeriod = drainGracePeriod;
+            return this;
+        }
+
+        public Builder flowControlRecvQueueHigh(long flowControlRecvQueueHigh) {
+            this.flowControlRecvQueueHigh = flowControlRecvQueueHigh;
+            return this;
+        }
+
+        public Builder flowControlRecvQueueLow(long flowControlRecvQueueLow) {
+            this.flowControlRecvQueueLow = flowControlRecvQueueLow;
+            return this;
+        }
+
+        public Builder discoverSegments(boolean discoverSegments) {
+            this.discoverSegments = discoverSegments;
+            return this;
+        }
+
+        public DiscoverSettings build() {
+            return new DiscoverSettings(this);
+        }
+    }
 }
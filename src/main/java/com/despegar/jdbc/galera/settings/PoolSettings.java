@@ -20,6 +20,16 @@ public class PoolSettings {
     public final boolean metricsEnabled;
     public final long leakDetectionThreshold;
 
+    /**
+     * When true, the pool is filled up to minConnectionsIdlePerHost before its node is activated.
+     */
+    public final boolean warmUp;
+
+    /**
+     * SQL run once on every new connection of the pool, or null.
+     */
+    public final String initSql;
+
     private PoolSettings(Builder builder) {
         Preconditions.checkArgument(builder.minConnectionsIdlePerHost >= 1, "Min connections per host must be greater or equal than 1. It was: %s",
                                     builder.minConnectionsIdlePerHost);
@@ -37,6 +47,8 @@ public class PoolSettings {
         metricsEnabled = builder.metricsEnabled;
         poolName = builder.poolName;
         leakDetectionThreshold = builder.leakDetectionThreshold;
+        warmUp = builder.warmUp;
+        initSql = builder.initSql;
     }
 
     public static Builder newBuilder() {
@@ -59,6 +71,8 @@ public class PoolSettings {
                 .add("isolationLevel", isolationLevel)
                 .add("consistencyLevel", consistencyLevel)
                 .add("leakDetectionThreshold", leakDetectionThreshold)
+                .add("warmUp", warmUp)
+                .add("initSql", initSql)
                 .toString();
     }
 
@@ -76,6 +90,8 @@ public class PoolSettings {
         private ConsistencyLevel consistencyLevel;
         private boolean metricsEnabled;
         private long leakDetectionThreshold;
+        private boolean warmUp;
+        private String initSql;
 
         private Builder() {
         }
@@ -149,6 +165,16 @@ public class PoolSettings {
             return this;
         }
 
+        public Builder warmUp(boolean warmUp) {
+            this.warmUp = warmUp;
+            return this;
+        }
+
+        public Builder initSql(String initSql) {
+            this.initSql = initSql;
+            return this;
+        }
+
         public PoolSettings build() {
             return new PoolSettings(this);
         }
@@ -0,0 +1,18 @@
+package com.despegar.jdbc.galera.settings;
+
+/**
+ * How discovery connects to each node to query its status.
+ */
+public enum StatusChannel {
+
+    /**
+     * A small Hikari pool per node (up to 8 connections, 4 idle).
+     */
+    POOL,
+
+    /**
+     * A single long lived connection per node, reopened after any failure. No extra pool nor housekeeping thread.
+     */
+    DEDICATED_CONNECTION
+
+}
@@ -0,0 +1,19 @@
+package com.despegar.jdbc.galera.settings;
+
+/**
+ * How discovery queries the status of each node.
+ */
+public enum StatusProbeMode {
+
+    /**
+     * SHOW STATUS (every wsrep_% variable) plus SHOW GLOBAL VARIABLES, two round trips per node. It works on every MariaDB/Percona version.
+     */
+    SHOW_STATUS,
+
+    /**
+     * A single query against information_schema fetching only the variables galera client uses. It needs information_schema.GLOBAL_STATUS,
+     * which is not available on MySQL/Percona 5.7+ unless show_compatibility_56 is enabled.
+     */
+    TARGETED
+
+}
@@ -1,11 +1,15 @@
 package com.despegar.jdbc.galera.utils;
 
+import com.despegar.jdbc.galera.consistency.ConsistencyLevel;
 import com.google.common.base.Optional;
 
+import java.util.Locale;
+
 public class PoolNameHelper {
 
     public static final String DEFAULT_POOL_PREFIX_NAME = "hikari-pool";
     public static final String STATUS_POOL_PREFIX_NAME = "status-";
+    public static final String READ_POOL_PREFIX_NAME = "read-";
 
     /**
      * Because of errors when hikari pool name have ':' character, we remove the last part of the node name (:port).
@@ -20,6 +24,14 @@ public class PoolNameHelper {
         return poolName.or(DEFAULT_POOL_PREFIX_NAME) + "." + nodeNameWithoutPort(node);
     }
 
+    public static String getFullReadPoolName(Optional<String> poolName, String node) {
+        return READ_POOL_PREFIX_NAME + getFullPoolName(poolName, node);
+    }
+
+    public static String getFullConsistencyPoolName(Optional<String> poolName, String node, ConsistencyLevel consistencyLevel) {
+        return consistencyLevel.name().toLowerCase(Locale.ENGLISH).replace('_', '-') + "-" + getFullPoolName(poolName, node);
+    }
+
     public static String getFullStatusPoolName(Optional<String> poolName, String node) {
         return STATUS_POOL_PREFIX_NAME + getFullPoolName(poolName, node);
     }
@@ -0,0 +1,76 @@
+package com.despegar.jdbc.galera;
+
+import com.despegar.jdbc.galera.connection.DelegatingConnection;
+import com.despegar.jdbc.galera.consistency.ConsistencyLevel;
+import com.despegar.jdbc.galera.consistency.ConsistencyLevelSupport;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+public class ConsistencyLevelSupportTest {
+
+    /**
+     * A physical connection that records the statements it executes.
+     */
+    private static Connection recordingConnection(final List<String> executed) {
+        final Statement statement = (Statement) Proxy.newProxyInstance(Statement.class.getClassLoader(), new Class[] { Statement.class },
+                                                                       new InvocationHandler() {
+                                                                           @Override
+                                                                           public Object invoke(Object proxy, Method method, Object[] args) {
+                                                                               if (method.getName().equals("execute")) {
+                                                                                   executed.add((String) args[0]);
+                                                                                   return false;
+                                                                               }
+                                                                               return null;
+                                                                           }
+                                                                       });
+        return (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(), new Class[] { Connection.class }, new InvocationHandler() {
+            @Override
+            public Object invoke(Object proxy, Method method, Object[] args) {
+                if (method.getName().equals("createStatement")) {
+                    return statement;
+                }
+                if (method.getName().equals("isWrapperFor")) {
+                    return false;
+                }
+                return null;
+            }
+        });
+    }
+
+    @Test
+    public void setsConsistencyLevelOnlyWhenSessionHasAnotherOne() throws SQLException {
+        List<String> executed = new ArrayList<String>();
+        Connection physicalConnection = recordingConnection(executed);
+
+        ConsistencyLevelSupport.set(new DelegatingConnection(physicalConnection), ConsistencyLevel.SYNC_READS.value, true);
+        // Another borrow of the same physical connection
+        ConsistencyLevelSupport.set(new DelegatingConnection(physicalConnection), ConsistencyLevel.SYNC_READS.value, true);
+        ConsistencyLevelSupport.set(new DelegatingConnection(physicalConnection), ConsistencyLevel.SYNC_READ_UPDATE_DELETE.value, true);
+        ConsistencyLevelSupport.reset(new DelegatingConnection(physicalConnection), true);
+        ConsistencyLevelSupport.reset(new DelegatingConnection(physicalConnection), true);
+
+        Assert.assertEquals(Arrays.asList("SET SESSION wsrep_sync_wait = 1", "SET SESSION wsrep_sync_wait = 3", "SET SESSION wsrep_sync_wait = DEFAULT"),
+                            executed);
+    }
+
+    @Test
+    public void setSessionSqlPinsPoolsToTheirConsistencyLevel() {
+        Assert.assertEquals("SET SESSION wsrep_sync_wait = 1", ConsistencyLevelSupport.setSessionSql(ConsistencyLevel.SYNC_READS));
+        Assert.assertEquals("SET SESSION wsrep_causal_reads = ON", ConsistencyLevelSupport.setSessionSql(ConsistencyLevel.CAUSAL_READS_ON));
+    }
+
+    @Test(expected = SQLException.class)
+    public void rejectsInvalidConsistencyLevel() throws SQLException {
+        ConsistencyLevelSupport.set(recordingConnection(new ArrayList<String>()), "1; DROP TABLE t", true);
+    }
+}
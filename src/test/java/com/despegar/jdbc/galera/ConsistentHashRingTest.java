@@ -0,0 +1,50 @@
+package com.despegar.jdbc.galera;
+
+import com.despegar.jdbc.galera.settings.PoolSettings;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+public class ConsistentHashRingTest {
+    private static final GaleraDB GALERA_DB = new GaleraDB("test", "sa", "");
+    private static final PoolSettings POOL_SETTINGS = PoolSettings.newBuilder().minConnectionsIdlePerHost(1).build();
+    private static final int KEYS = 3000;
+
+    private static GaleraNode node(String name) {
+        return new GaleraNode(name, GALERA_DB, POOL_SETTINGS, POOL_SETTINGS, true);
+    }
+
+    @Test
+    public void spreadsKeysAndOnlyMovesKeysOfRemovedNode() {
+        GaleraNode nodeA = node("a:3306");
+        GaleraNode nodeB = node("b:3306");
+        GaleraNode nodeC = node("c:3306");
+        ConsistentHashRing ring = new ConsistentHashRing(Arrays.asList(nodeA, nodeB, nodeC));
+        ConsistentHashRing ringWithoutB = new ConsistentHashRing(Arrays.asList(nodeA, nodeC));
+
+        Map<GaleraNode, Integer> keysPerNode = new HashMap<GaleraNode, Integer>();
+        for (int i = 0; i < KEYS; i++) {
+            String key = "tenant-" + i;
+            GaleraNode owner = ring.node(key);
+            Assert.assertSame(owner, ring.node(key));
+            Integer keys = keysPerNode.get(owner);
+            keysPerNode.put(owner, keys == null ? 1 : keys + 1);
+
+            if (owner != nodeB) {
+                Assert.assertSame("Only keys of the removed node move", owner, ringWithoutB.node(key));
+            }
+        }
+
+        for (int keys : keysPerNode.values()) {
+            Assert.assertTrue("Unbalanced ring: " + keysPerNode, keys > KEYS / 3 * 0.7 && keys < KEYS / 3 * 1.3);
+        }
+    }
+
+    @Test
+    public void emptyRingHasNoNode() {
+        Assert.assertNull(GaleraTopology.EMPTY.ring().node("key"));
+    }
+}
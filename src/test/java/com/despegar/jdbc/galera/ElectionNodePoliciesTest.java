@@ -0,0 +1,246 @@
+package com.despegar.jdbc.galera;
+
+import com.despegar.jdbc.galera.policies.AbstractNodeAwareElectionNodePolicy;
+import com.despegar.jdbc.galera.policies.FlowControlAwarePolicy;
+import com.despegar.jdbc.galera.policies.LagAwarePolicy;
+import com.despegar.jdbc.galera.policies.LeastInFlightConnectionsPolicy;
+import com.despegar.jdbc.galera.policies.MasterSortingNodesPolicy;
+import com.despegar.jdbc.galera.policies.NodeAwareElectionNodePolicy;
+import com.despegar.jdbc.galera.policies.NodeAwareElectionNodePolicyAdapter;
+import com.despegar.jdbc.galera.policies.PeakEwmaPolicy;
+import com.despegar.jdbc.galera.policies.PowerOfTwoChoicesPolicy;
+import com.despegar.jdbc.galera.policies.SegmentAwarePolicy;
+import com.despegar.jdbc.galera.policies.SingleWriterPolicy;
+import com.despegar.jdbc.galera.policies.WeightedRoundRobinPolicy;
+import com.google.common.collect.ImmutableMap;
+import com.despegar.jdbc.galera.settings.PoolSettings;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+public class ElectionNodePoliciesTest {
+    private static final GaleraDB GALERA_DB = new GaleraDB("test", "sa", "");
+    private static final PoolSettings POOL_SETTINGS = PoolSettings.newBuilder().minConnectionsIdlePerHost(1).build();
+
+    private static GaleraNode node(String name) {
+        return new GaleraNode(name, GALERA_DB, POOL_SETTINGS, POOL_SETTINGS, true);
+    }
+
+    private static void borrow(GaleraNode galeraNode, int connections) {
+        for (int i = 0; i < connections; i++) {
+            galeraNode.onBorrow();
+        }
+    }
+
+    @Test
+    public void leastInFlightConnectionsChoosesLeastLoadedNode() {
+        GaleraNode nodeA = node("a:3306");
+        GaleraNode nodeB = node("b:3306");
+        GaleraNode nodeC = node("c:3306");
+        borrow(nodeA, 5);
+        borrow(nodeB, 1);
+        borrow(nodeC, 3);
+        List<GaleraNode> activeNodes = Arrays.asList(nodeA, nodeB, nodeC);
+
+        LeastInFlightConnectionsPolicy policy = new LeastInFlightConnectionsPolicy();
+        for (int i = 0; i < 10; i++) {
+            Assert.assertSame(nodeB, policy.chooseGaleraNode(activeNodes));
+        }
+
+        borrow(nodeB, 4);
+        Assert.assertSame(nodeC, policy.chooseGaleraNode(activeNodes));
+    }
+
+    @Test
+    public void peakEwmaAvoidsSlowNode() {
+        GaleraNode fastNode = node("fast:3306");
+        GaleraNode slowNode = node("slow:3306");
+        release(fastNode, TimeUnit.MILLISECONDS.toNanos(2));
+        release(slowNode, TimeUnit.MILLISECONDS.toNanos(50));
+        List<GaleraNode> activeNodes = Arrays.asList(fastNode, slowNode);
+
+        PeakEwmaPolicy policy = new PeakEwmaPolicy();
+        Assert.assertSame(fastNode, policy.chooseGaleraNode(activeNodes));
+
+        // Fast node is saturated, its expected cost is now higher than the slow idle one
+        borrow(fastNode, 30);
+        Assert.assertSame(slowNode, policy.chooseGaleraNode(activeNodes));
+    }
+
+    @Test
+    public void powerOfTwoChoicesNeverChoosesMostLoadedNode() {
+        GaleraNode nodeA = node("a:3306");
+        GaleraNode nodeB = node("b:3306");
+        GaleraNode nodeC = node("c:3306");
+        borrow(nodeA, 2);
+        borrow(nodeB, 10);
+        borrow(nodeC, 1);
+        List<GaleraNode> activeNodes = Arrays.asList(nodeA, nodeB, nodeC);
+
+        PowerOfTwoChoicesPolicy policy = new PowerOfTwoChoicesPolicy();
+        for (int i = 0; i < 100; i++) {
+            Assert.assertNotSame(nodeB, policy.chooseGaleraNode(activeNodes));
+        }
+        Assert.assertSame(nodeA, policy.chooseGaleraNode(Arrays.asList(nodeA, nodeB)));
+    }
+
+    @Test
+    public void flowControlAwareSkipsThrottledNodeUntilItsQueueDrains() {
+        GaleraNode nodeA = node("a:3306");
+        GaleraNode nodeB = node("b:3306");
+        List<GaleraNode> activeNodes = Arrays.asList(nodeA, nodeB);
+        FlowControlAwarePolicy policy = new FlowControlAwarePolicy(new LeastInFlightConnectionsPolicy());
+        borrow(nodeA, 5);
+
+        Assert.assertTrue(nodeB.updateFlowControl(status(20, 0), 16, 8));
+        Assert.assertSame(nodeA, policy.chooseGaleraNode(activeNodes));
+
+        // Still above the low threshold
+        Assert.assertFalse(nodeB.updateFlowControl(status(10, 0), 16, 8));
+        Assert.assertSame(nodeA, policy.chooseGaleraNode(activeNodes));
+
+        Assert.assertTrue(nodeB.updateFlowControl(status(8, 0), 16, 8));
+        Assert.assertSame(nodeB, policy.chooseGaleraNode(activeNodes));
+
+        // A flow control pause sent since last discovery throttles the node even with a short queue
+        Assert.assertTrue(nodeB.updateFlowControl(status(0, 1), 16, 8));
+        Assert.assertSame(nodeA, policy.chooseGaleraNode(activeNodes));
+
+        // Every node throttled, all of them are candidates
+        nodeA.updateFlowControl(status(30, 0), 16, 8);
+        Assert.assertSame(nodeB, policy.chooseGaleraNode(activeNodes));
+    }
+
+    @Test
+    public void weightedRoundRobinInterleavesNodesByWeight() {
+        GaleraNode smallNode = node("small:3306");
+        GaleraNode bigNode = node("big:3306");
+        List<GaleraNode> activeNodes = Arrays.asList(smallNode, bigNode);
+        WeightedRoundRobinPolicy policy = new WeightedRoundRobinPolicy(ImmutableMap.of("small:3306", 1, "big:3306", 3));
+
+        int smallCount = 0;
+        GaleraNode previous = null;
+        for (int i = 0; i < 40; i++) {
+            GaleraNode selected = policy.chooseGaleraNode(activeNodes);
+            if (selected == smallNode) {
+                Assert.assertNotSame("Small node must not get bursts", smallNode, previous);
+                smallCount++;
+            }
+            previous = selected;
+        }
+        Assert.assertEquals(10, smallCount);
+    }
+
+    @Test
+    public void weightedRoundRobinKeepsSmoothingAcrossCandidateLists() {
+        GaleraNode smallNode = node("small:3306");
+        GaleraNode bigNode = node("big:3306");
+        List<GaleraNode> activeNodes = Arrays.asList(smallNode, bigNode);
+        WeightedRoundRobinPolicy policy = new WeightedRoundRobinPolicy(ImmutableMap.of("small:3306", 1, "big:3306", 3));
+
+        int smallCount = 0;
+        for (int i = 0; i < 40; i++) {
+            // Decorators filtering candidates hand a new list on every borrow
+            if (policy.chooseGaleraNode(new ArrayList<GaleraNode>(activeNodes)) == smallNode) {
+                smallCount++;
+            }
+        }
+        Assert.assertEquals(10, smallCount);
+    }
+
+    @Test
+    public void segmentAwarePrefersLocalNodesAndSpillsOverWhenSaturated() {
+        GaleraNode localNode = node("local:3306");
+        GaleraNode remoteNode = node("remote:3306");
+        List<GaleraNode> activeNodes = Arrays.asList(localNode, remoteNode);
+        SegmentAwarePolicy policy = new SegmentAwarePolicy(new LeastInFlightConnectionsPolicy(), 1,
+                                                           ImmutableMap.of("local:3306", 1, "remote:3306", 2));
+
+        Assert.assertSame(localNode, policy.chooseGaleraNode(activeNodes));
+        Assert.assertSame(remoteNode, policy.chooseGaleraNode(Arrays.asList(remoteNode)));
+
+        // Every local connection in use
+        borrow(localNode, POOL_SETTINGS.maxConnectionsPerHost);
+        Assert.assertTrue(localNode.isSaturated());
+        Assert.assertSame(remoteNode, policy.chooseGaleraNode(activeNodes));
+    }
+
+    @Test
+    public void lagAwareSkipsNodesBehindTheirPeers() {
+        GaleraNode nodeA = node("a:3306");
+        GaleraNode nodeB = node("b:3306");
+        List<GaleraNode> activeNodes = Arrays.asList(nodeA, nodeB);
+        LagAwarePolicy policy = new LagAwarePolicy(new LeastInFlightConnectionsPolicy(), 100, -1);
+
+        nodeA.updateSeqnoLag(500);
+        nodeB.updateSeqnoLag(0);
+        Assert.assertSame(nodeB, policy.chooseGaleraNode(activeNodes));
+
+        // Within the threshold
+        nodeA.updateSeqnoLag(100);
+        borrow(nodeB, 1);
+        Assert.assertSame(nodeA, policy.chooseGaleraNode(activeNodes));
+
+        // Every node lags, so all of them are candidates
+        nodeA.updateSeqnoLag(500);
+        nodeB.updateSeqnoLag(500);
+        Assert.assertSame(nodeA, policy.chooseGaleraNode(activeNodes));
+    }
+
+    @Test
+    public void singleWriterIsFirstNodeSortedAlphabetically() {
+        GaleraNode nodeA = node("a:3306");
+        GaleraNode nodeB = node("b:3306");
+        GaleraNode nodeC = node("c:3306");
+        GaleraTopology topology = GaleraTopology.EMPTY.with(nodeC).with(nodeA).with(nodeB);
+        SingleWriterPolicy policy = new SingleWriterPolicy();
+
+        Assert.assertEquals(Arrays.asList("a:3306", "b:3306", "c:3306"), topology.nodeNames());
+        Assert.assertSame(nodeA, topology.writer());
+        Assert.assertSame(nodeA, policy.chooseGaleraNode(topology.nodes()));
+        Assert.assertEquals("a:3306", policy.chooseNode(Arrays.asList("c:3306", "a:3306", "b:3306")));
+
+        topology = topology.without("a:3306");
+        Assert.assertSame(nodeB, topology.writer());
+        Assert.assertSame(nodeB, policy.chooseGaleraNode(topology.nodes()));
+    }
+
+    @Test
+    public void customPoliciesChooseOnNodeViews() {
+        GaleraNode nodeA = node("a:3306");
+        GaleraNode nodeB = node("b:3306");
+        List<GaleraNode> activeNodes = Arrays.asList(nodeB, nodeA);
+
+        NodeAwareElectionNodePolicy mostLoaded = new AbstractNodeAwareElectionNodePolicy() {
+            @Override
+            protected <N extends GaleraNodeView> N choose(List<N> candidates) {
+                return candidates.get(0).inFlightConnections() >= candidates.get(1).inFlightConnections() ? candidates.get(0) : candidates.get(1);
+            }
+        };
+        borrow(nodeA, 2);
+        Assert.assertSame(nodeA, mostLoaded.chooseGaleraNode(activeNodes));
+
+        NodeAwareElectionNodePolicy masterSorting = NodeAwareElectionNodePolicyAdapter.adapt(new MasterSortingNodesPolicy());
+        Assert.assertSame(nodeA, masterSorting.chooseGaleraNode(activeNodes));
+        Assert.assertEquals("MasterSortingNodes", masterSorting.getName());
+        Assert.assertEquals("LeastInFlightConnections", new LeastInFlightConnectionsPolicy().getName());
+    }
+
+    private static GaleraStatus status(long recvQueue, long flowControlSent) {
+        Map<String, String> statusMap = new HashMap<String, String>();
+        statusMap.put("wsrep_local_recv_queue", String.valueOf(recvQueue));
+        statusMap.put("wsrep_flow_control_sent", String.valueOf(flowControlSent));
+        return new GaleraStatus(statusMap);
+    }
+
+    private static void release(GaleraNode galeraNode, long usageNanos) {
+        galeraNode.onBorrow();
+        galeraNode.onRelease(usageNanos);
+    }
+}
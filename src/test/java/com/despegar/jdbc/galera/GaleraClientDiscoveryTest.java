@@ -0,0 +1,249 @@
+package com.despegar.jdbc.galera;
+
+import com.despegar.jdbc.galera.listener.GaleraClientLoggingListener;
+import com.despegar.jdbc.galera.policies.RoundRobinPolicy;
+import com.despegar.jdbc.galera.settings.ClientSettings;
+import com.despegar.jdbc.galera.settings.DiscoverSettings;
+import com.despegar.jdbc.galera.settings.PoolSettings;
+import com.google.common.base.Optional;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.sql.Connection;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class GaleraClientDiscoveryTest {
+    private static final long DISCOVER_TIMEOUT = 200;
+    private static final long WARM_UP_TIMEOUT = 1000;
+    private static final String AWAIT_WARM_UP_GATE = "CREATE ALIAS IF NOT EXISTS AWAIT_WARM_UP_GATE FOR \""
+            + GaleraClientDiscoveryTest.class.getName() + ".awaitWarmUpGate\"; CALL AWAIT_WARM_UP_GATE()";
+
+    private static volatile CountDownLatch warmUpGate = new CountDownLatch(0);
+
+    private StubbedGaleraClient client;
+
+    @Before
+    public void initialize() {
+        client = new StubbedGaleraClient(DiscoverSettings.newBuilder().discoverPeriod(60000).discoverTimeout(DISCOVER_TIMEOUT),
+                                         StubbedGaleraClient.poolSettings(2));
+        Assert.assertEquals(Arrays.asList("a", "b"), client.topology().nodeNames());
+    }
+
+    @After
+    public void shutdown() {
+        warmUpGate.countDown();
+        if (client != null) {
+            client.hung.countDown();
+            client.shutdown();
+        }
+    }
+
+    @Test
+    public void hungProbeIsBoundedByDeadlineAndReused() throws Exception {
+        client.hungNode = "b";
+
+        long start = System.nanoTime();
+        client.requestDiscovery().get(5, TimeUnit.SECONDS);
+        Assert.assertTrue(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) < 10 * DISCOVER_TIMEOUT);
+        Assert.assertEquals(Arrays.asList("a"), client.topology().nodeNames());
+        Assert.assertFalse(client.nodes.containsKey("b"));
+        Assert.assertEquals(1, client.probes("b"));
+
+        // "a" still lists "b", so it is registered again and waits on the probe that is still running
+        client.requestDiscovery().get(5, TimeUnit.SECONDS);
+        Assert.assertEquals(1, client.probes("b"));
+        Assert.assertEquals(Arrays.asList("a"), client.topology().nodeNames());
+
+        client.hungNode = null;
+        client.hung.countDown();
+        client.requestDiscovery().get(5, TimeUnit.SECONDS);
+        Assert.assertEquals(2, client.probes("b"));
+        Assert.assertEquals(Arrays.asList("a", "b"), client.topology().nodeNames());
+    }
+
+    @Test
+    public void requestDiscoveryIsCoalesced() throws Exception {
+        client.hungNode = "b";
+
+        Future<?> discovery = client.requestDiscovery();
+        Assert.assertSame(discovery, client.requestDiscovery());
+        Assert.assertSame(discovery, client.requestDiscovery());
+        discovery.get(5, TimeUnit.SECONDS);
+        Assert.assertEquals(1, client.probes("b"));
+
+        Future<?> nextDiscovery = client.requestDiscovery();
+        Assert.assertNotSame(discovery, nextDiscovery);
+        nextDiscovery.get(5, TimeUnit.SECONDS);
+        Assert.assertEquals(2, client.probes("a"));
+    }
+
+    @Test
+    public void nodeIsPublishedOnceWarmedUp() throws Exception {
+        client.shutdown();
+        client = new StubbedGaleraClient(DiscoverSettings.newBuilder().discoverPeriod(60000).discoverTimeout(WARM_UP_TIMEOUT),
+                                         StubbedGaleraClient.poolSettings(1).warmUp(true).initSql(AWAIT_WARM_UP_GATE));
+        // The client is handed out once its seeds are warmed up
+        Assert.assertEquals(Arrays.asList("a", "b"), client.topology().nodeNames());
+        GaleraNode galeraNode = client.nodes.get("b");
+
+        warmUpGate = new CountDownLatch(1);
+        client.statuses.put("b", nonPrimaryStatus());
+        client.requestDiscovery().get(5, TimeUnit.SECONDS);
+        Assert.assertFalse(galeraNode.hasPool());
+
+        client.statuses.remove("b");
+        long start = System.nanoTime();
+        client.requestDiscovery().get(5, TimeUnit.SECONDS);
+        // Discovery does not wait for the warm up, neither clients see the node before it finishes
+        Assert.assertTrue(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) < WARM_UP_TIMEOUT);
+        Assert.assertTrue(galeraNode.hasPool());
+        Assert.assertEquals(Arrays.asList("a"), client.topology().nodeNames());
+
+        warmUpGate.countDown();
+        awaitTopology(Arrays.asList("a", "b"));
+    }
+
+    @Test
+    public void nodeNotWarmedUpInTimeIsMarkedAsDown() throws Exception {
+        client.shutdown();
+        client = new StubbedGaleraClient(DiscoverSettings.newBuilder().discoverPeriod(60000).discoverTimeout(DISCOVER_TIMEOUT),
+                                         StubbedGaleraClient.poolSettings(1).warmUp(true).initSql(AWAIT_WARM_UP_GATE));
+        GaleraNode galeraNode = client.nodes.get("b");
+
+        warmUpGate = new CountDownLatch(1);
+        client.statuses.put("b", nonPrimaryStatus());
+        client.requestDiscovery().get(5, TimeUnit.SECONDS);
+        client.statuses.remove("b");
+        client.requestDiscovery().get(5, TimeUnit.SECONDS);
+        Assert.assertTrue(galeraNode.hasPool());
+
+        Thread.sleep(2 * DISCOVER_TIMEOUT);
+        // Lets the pool close, an activation that missed its deadline is not published afterwards
+        warmUpGate.countDown();
+        long deadline = System.currentTimeMillis() + 5000;
+        while (galeraNode.hasPool() && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        Assert.assertFalse(galeraNode.hasPool());
+        Assert.assertEquals(Arrays.asList("a"), client.topology().nodeNames());
+    }
+
+    @Test
+    public void drainingNodeKeepsItsPoolUntilItComesBack() throws Exception {
+        client.shutdown();
+        client = new StubbedGaleraClient(DiscoverSettings.newBuilder().discoverPeriod(60000).discoverTimeout(DISCOVER_TIMEOUT).drainGracePeriod(60000),
+                                         StubbedGaleraClient.poolSettings(2));
+        GaleraNode galeraNode = client.nodes.get("b");
+        Connection inFlight = galeraNode.getConnection();
+
+        client.statuses.put("b", nonPrimaryStatus());
+        client.requestDiscovery().get(5, TimeUnit.SECONDS);
+        Assert.assertEquals(Arrays.asList("a"), client.topology().nodeNames());
+        Assert.assertTrue(galeraNode.isDraining());
+        Assert.assertTrue(galeraNode.hasPool());
+        Assert.assertTrue(inFlight.isValid(1));
+        inFlight.close();
+
+        client.statuses.remove("b");
+        client.requestDiscovery().get(5, TimeUnit.SECONDS);
+        Assert.assertEquals(Arrays.asList("a", "b"), client.topology().nodeNames());
+        Assert.assertFalse(galeraNode.isDraining());
+        Assert.assertTrue(galeraNode.hasPool());
+    }
+
+    @Test
+    public void expiredDrainClosesThePool() throws Exception {
+        client.shutdown();
+        client = new StubbedGaleraClient(DiscoverSettings.newBuilder().discoverPeriod(60000).discoverTimeout(DISCOVER_TIMEOUT).drainGracePeriod(50),
+                                         StubbedGaleraClient.poolSettings(2));
+        GaleraNode galeraNode = client.nodes.get("b");
+
+        client.statuses.put("b", nonPrimaryStatus());
+        client.requestDiscovery().get(5, TimeUnit.SECONDS);
+        Assert.assertTrue(galeraNode.isDraining());
+
+        Thread.sleep(100);
+        client.requestDiscovery().get(5, TimeUnit.SECONDS);
+        Assert.assertFalse(galeraNode.isDraining());
+        Assert.assertFalse(galeraNode.hasPool());
+        Assert.assertEquals(Arrays.asList("a"), client.topology().nodeNames());
+    }
+
+    /**
+     * Called by H2 from the init SQL of the warm up test pools, every new connection waits for the gate to be open.
+     */
+    public static void awaitWarmUpGate() throws InterruptedException {
+        warmUpGate.await();
+    }
+
+    private static GaleraStatus nonPrimaryStatus() {
+        Map<String, String> statusMap = new HashMap<String, String>();
+        statusMap.put("wsrep_cluster_status", "non-Primary");
+        statusMap.put("wsrep_local_state_comment", "Synced");
+        statusMap.put("wsrep_incoming_addresses", "a,b");
+        return new GaleraStatus(statusMap);
+    }
+
+    private void awaitTopology(List<String> nodeNames) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5000;
+        while (!nodeNames.equals(client.topology().nodeNames()) && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        Assert.assertEquals(nodeNames, client.topology().nodeNames());
+    }
+
+    /**
+     * Every status probe answers that the cluster is made of nodes "a" and "b", unless a status is set for the node. Probes of the hung
+     * node block until it is released.
+     */
+    private static class StubbedGaleraClient extends GaleraClient {
+        private final Map<String, GaleraStatus> statuses = new ConcurrentHashMap<String, GaleraStatus>();
+        private final ConcurrentMap<String, AtomicInteger> probes = new ConcurrentHashMap<String, AtomicInteger>();
+        private final CountDownLatch hung = new CountDownLatch(1);
+        private volatile String hungNode;
+
+        StubbedGaleraClient(DiscoverSettings.Builder discoverSettings, PoolSettings.Builder poolSettings) {
+            super(ClientSettings.newBuilder().seeds(Arrays.asList("a", "b")).retriesToGetConnection(1)
+                          .galeraClientListener(new GaleraClientLoggingListener()).defaultNodeSelectionPolicy(new RoundRobinPolicy()).testMode(true)
+                          .build(),
+                  discoverSettings.build(), new GaleraDB("DB_CLOSE_DELAY=-1", "sa", "", "jdbc:h2:mem:discovery_", ";"),
+                  poolSettings.autocommit(true).build(), poolSettings(1).build());
+        }
+
+        private static PoolSettings.Builder poolSettings(int maxConnections) {
+            return PoolSettings.newBuilder().maxConnectionsPerHost(maxConnections).minConnectionsIdlePerHost(1).connectTimeout(500)
+                    .connectionTimeout(1000).readTimeout(1000).idleTimeout(30000).poolName(Optional.<String>absent());
+        }
+
+        @Override
+        GaleraStatus refreshStatus(String node) throws Exception {
+            if (statuses == null) {
+                // Seeds are registered by the GaleraClient constructor, before these fields are set
+                return super.refreshStatus(node);
+            }
+            probes.putIfAbsent(node, new AtomicInteger());
+            probes.get(node).incrementAndGet();
+            if (node.equals(hungNode)) {
+                hung.await();
+            }
+            GaleraStatus status = statuses.get(node);
+            return (status != null) ? status : GaleraStatus.buildTestStatusOk("a,b");
+        }
+
+        int probes(String node) {
+            AtomicInteger count = probes.get(node);
+            return (count != null) ? count.get() : 0;
+        }
+    }
+}
@@ -0,0 +1,111 @@
+package com.despegar.jdbc.galera;
+
+import com.despegar.jdbc.galera.consistency.CausalityToken;
+import com.despegar.jdbc.galera.settings.PoolSettings;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+public class GaleraStatusTest {
+
+    @Test
+    public void parsesStatusOnce() {
+        Map<String, String> statusMap = new HashMap<String, String>();
+        statusMap.put("wsrep_cluster_status", "Primary");
+        statusMap.put("wsrep_local_state_comment", "Synced");
+        statusMap.put("wsrep_incoming_addresses", "maria-1:3306,maria-2:3306");
+        statusMap.put("Threads_connected", "12");
+        statusMap.put("wsrep_last_committed", "1234567");
+        statusMap.put("wsrep_local_recv_queue", "3");
+        statusMap.put("wsrep_local_send_queue", "1");
+        statusMap.put("wsrep_flow_control_paused", "0.25");
+        statusMap.put("wsrep_local_cert_failures", "7");
+        statusMap.put("wsrep_sync_wait", "1");
+        statusMap.put("wsrep_provider_options", "evs.version = 0; gcache.size = 128M; gmcast.segment = 2; gmcast.version = 0");
+
+        GaleraStatus status = new GaleraStatus(statusMap);
+
+        Assert.assertTrue(status.isPrimary());
+        Assert.assertTrue(status.isSynced());
+        Assert.assertEquals(GaleraStatus.NodeState.SYNCED, status.nodeState());
+        Assert.assertEquals(2, status.getClusterNodes().size());
+        Assert.assertTrue(status.getClusterNodes().contains("maria-2:3306"));
+        Assert.assertEquals(12, status.threadsConnected());
+        Assert.assertEquals(1234567L, status.lastCommitted());
+        Assert.assertEquals(3L, status.recvQueue());
+        Assert.assertEquals(1L, status.sendQueue());
+        Assert.assertEquals(0.25, status.flowControlPaused(), 0.0001);
+        Assert.assertEquals(7L, status.certFailures());
+        Assert.assertTrue(status.supportsSyncWait());
+        Assert.assertEquals("1", status.getGlobalConsistencyLevel());
+        Assert.assertEquals(2, status.segment());
+    }
+
+    @Test
+    public void causalityTokenIsAppliedOnNodesOfTheSameHistory() {
+        Map<String, String> statusMap = new HashMap<String, String>();
+        statusMap.put("wsrep_last_committed", "100");
+        statusMap.put("wsrep_cluster_state_uuid", "6e3c3f3a-0000-11e6-9b6e-1b8f2fe0e000");
+        GaleraStatus status = new GaleraStatus(statusMap);
+
+        Assert.assertTrue(new CausalityToken("6e3c3f3a-0000-11e6-9b6e-1b8f2fe0e000", 100, null).isAppliedOn(status));
+        Assert.assertTrue(new CausalityToken(null, 90, null).isAppliedOn(status));
+        Assert.assertFalse(new CausalityToken("6e3c3f3a-0000-11e6-9b6e-1b8f2fe0e000", 101, null).isAppliedOn(status));
+        Assert.assertFalse(new CausalityToken("0b9a8e1c-0000-11e6-8a1f-2c9e5e6f0000", 90, null).isAppliedOn(status));
+        Assert.assertFalse(new CausalityToken(null, 90, null).isAppliedOn(null));
+    }
+
+    @Test
+    public void readAfterWriteGoesToNodesThatAppliedIt() {
+        String uuid = "6e3c3f3a-0000-11e6-9b6e-1b8f2fe0e000";
+        GaleraNode upToDate = node("a:3306", appliedStatus(uuid, 120));
+        GaleraNode lagging = node("b:3306", appliedStatus(uuid, 99));
+        GaleraNode otherHistory = node("c:3306", appliedStatus("0b9a8e1c-0000-11e6-8a1f-2c9e5e6f0000", 500));
+        GaleraNode notDiscovered = node("d:3306", null);
+        GaleraTopology topology = GaleraTopology.EMPTY.with(upToDate).with(lagging).with(otherHistory).with(notDiscovered);
+
+        Assert.assertEquals(Arrays.asList(upToDate), GaleraClient.nodesThatApplied(topology, new CausalityToken(uuid, 100, null)));
+        // The origin node applied it on commit, even if discovery did not see it yet
+        Assert.assertEquals(Arrays.asList(upToDate, lagging), GaleraClient.nodesThatApplied(topology, new CausalityToken(uuid, 100, "b:3306")));
+        Assert.assertEquals(Arrays.asList(notDiscovered), GaleraClient.nodesThatApplied(topology, new CausalityToken(uuid, 1000, "d:3306")));
+        Assert.assertEquals(Collections.<GaleraNode>emptyList(), GaleraClient.nodesThatApplied(topology, new CausalityToken(uuid, 1000, null)));
+    }
+
+    private static GaleraNode node(String name, final GaleraStatus lastStatus) {
+        PoolSettings poolSettings = PoolSettings.newBuilder().minConnectionsIdlePerHost(1).build();
+        return new GaleraNode(name, new GaleraDB("test", "sa", ""), poolSettings, poolSettings, true) {
+            @Override
+            public GaleraStatus lastStatus() {
+                return lastStatus;
+            }
+        };
+    }
+
+    private static GaleraStatus appliedStatus(String clusterStateUuid, long lastCommitted) {
+        Map<String, String> statusMap = new HashMap<String, String>();
+        statusMap.put("wsrep_last_committed", String.valueOf(lastCommitted));
+        statusMap.put("wsrep_cluster_state_uuid", clusterStateUuid);
+        return new GaleraStatus(statusMap);
+    }
+
+    @Test
+    public void missingVariablesAreNotHealthy() {
+        Map<String, String> statusMap = new HashMap<String, String>();
+        statusMap.put("wsrep_local_state_comment", "Joining: receiving State Transfer");
+        statusMap.put("wsrep_causal_reads", "ON");
+
+        GaleraStatus status = new GaleraStatus(statusMap);
+
+        Assert.assertFalse(status.isPrimary());
+        Assert.assertEquals(GaleraStatus.NodeState.JOINING, status.nodeState());
+        Assert.assertTrue(status.getClusterNodes().isEmpty());
+        Assert.assertEquals(-1, status.threadsConnected());
+        Assert.assertEquals(-1L, status.lastCommitted());
+        Assert.assertFalse(status.supportsSyncWait());
+        Assert.assertEquals("ON", status.getGlobalConsistencyLevel());
+    }
+}
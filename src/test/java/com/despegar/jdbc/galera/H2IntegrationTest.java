@@ -1,11 +1,19 @@
 package com.despegar.jdbc.galera;
 
+import com.despegar.jdbc.galera.connection.DelegatingConnection;
+import com.despegar.jdbc.galera.connection.LazyConnection;
+import com.despegar.jdbc.galera.consistency.CausalityToken;
 import org.junit.After;
 import org.junit.Assert;
 import org.junit.Before;
 import org.junit.Test;
 
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
 import java.sql.Connection;
+import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.sql.Statement;
@@ -15,15 +23,8 @@ public class H2IntegrationTest {
 
     @Before
     public void initialize() {
-        client = new GaleraClient.Builder()
-                .testMode(true)
-                .jdbcUrlPrefix("jdbc:h2:")
-                .seeds("mem")
-                .jdbcUrlSeparator(":")
-                .database("test;MODE=MySQL;DB_CLOSE_ON_EXIT=FALSE")
-                .user("sa").password("")
+        client = newClient("test")
                 .connectTimeout(500)
-                .connectionTimeout(1000)
                 .readTimeout(1000)
                 .maxConnectionsPerHost(3)
                 .minConnectionsIdlePerHost(1)
@@ -33,6 +34,20 @@ public class H2IntegrationTest {
                 .build();
     }
 
+    /**
+     * @return a builder of a test mode client on a H2 in memory database, to be completed by each test
+     */
+    private static GaleraClient.Builder newClient(String database) {
+        return new GaleraClient.Builder()
+                .testMode(true)
+                .jdbcUrlPrefix("jdbc:h2:")
+                .seeds("mem")
+                .jdbcUrlSeparator(":")
+                .database(database + ";MODE=MySQL;DB_CLOSE_ON_EXIT=FALSE")
+                .user("sa").password("")
+                .connectionTimeout(1000);
+    }
+
     @After
     public void shutdown() {
         if (client != null) {
@@ -49,6 +64,228 @@ public class H2IntegrationTest {
 
     }
 
+    @Test
+    public void inFlightConnectionsFollowBorrowAndClose() throws Exception {
+        GaleraNode galeraNode = client.nodes.get("mem");
+        Connection first = client.getConnection();
+        final Connection second = client.getConnection();
+        Assert.assertEquals(2, galeraNode.inFlightConnections());
+
+        first.close();
+        first.close();
+        Assert.assertEquals(1, galeraNode.inFlightConnections());
+
+        // Released on another thread than the one that borrowed it
+        Thread closer = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    second.close();
+                } catch (SQLException e) {
+                    throw new IllegalStateException(e);
+                }
+            }
+        });
+        closer.start();
+        closer.join();
+        Assert.assertEquals(0, galeraNode.inFlightConnections());
+    }
+
+    @Test
+    public void readWriteSplit() throws SQLException {
+        client.shutdown();
+        client = newClient("split")
+                .maxConnectionsPerHost(2)
+                .minConnectionsIdlePerHost(1)
+                .readMaxConnectionsPerHost(3)
+                .build();
+
+        Assert.assertTrue(client.nodes.get("mem").isReadWriteSplit());
+
+        Connection writeConnection = client.getWriteConnection();
+        try {
+            Statement statement = writeConnection.createStatement();
+            statement.executeUpdate("CREATE TABLE splitTable (id INTEGER);");
+            statement.executeUpdate("insert into splitTable values(42);");
+            statement.close();
+        } finally {
+            writeConnection.close();
+        }
+
+        // Write pool is exhausted, reads still get connections from their own pool
+        Connection firstWrite = client.getWriteConnection();
+        Connection secondWrite = client.getWriteConnection();
+        Connection readConnection = client.getReadConnection();
+        try {
+            Statement statement = readConnection.createStatement();
+            ResultSet rs = statement.executeQuery("select id from splitTable;");
+            rs.next();
+            Assert.assertEquals(42, rs.getInt(1));
+            rs.close();
+            statement.close();
+        } finally {
+            readConnection.close();
+            firstWrite.close();
+            secondWrite.close();
+        }
+    }
+
+    @Test
+    public void lazyConnectionsBorrowOnFirstStatement() throws SQLException {
+        client.shutdown();
+        client = newClient("lazy")
+                .maxConnectionsPerHost(1)
+                .minConnectionsIdlePerHost(1)
+                .autocommit(true)
+                .lazyConnections(true)
+                .build();
+        GaleraNode galeraNode = client.nodes.get("mem");
+
+        // Never used, it does not take the only connection of the pool
+        Connection idleConnection = client.getConnection();
+        idleConnection.setAutoCommit(false);
+        Assert.assertFalse(idleConnection.getAutoCommit());
+        idleConnection.commit();
+
+        Connection connection = client.getConnection();
+        try {
+            Assert.assertEquals(0, galeraNode.inFlightConnections());
+            connection.setAutoCommit(false);
+            PreparedStatement statement = connection.prepareStatement("select 1;");
+            Assert.assertEquals(1, galeraNode.inFlightConnections());
+            ResultSet rs = statement.executeQuery();
+            rs.next();
+            Assert.assertEquals(1, rs.getInt(1));
+            rs.close();
+            statement.close();
+            connection.commit();
+        } finally {
+            connection.close();
+            idleConnection.close();
+        }
+        Assert.assertEquals(0, galeraNode.inFlightConnections());
+    }
+
+    @Test
+    public void statementRoutingSendsPlainReadsToReadPool() throws SQLException {
+        client.shutdown();
+        client = newClient("routing")
+                .maxConnectionsPerHost(1)
+                .minConnectionsIdlePerHost(1)
+                .readMaxConnectionsPerHost(1)
+                .autocommit(true)
+                .statementRouting(true)
+                .build();
+
+        Connection connection = client.getConnection();
+        try {
+            PreparedStatement read = connection.prepareStatement("select 1;");
+            // The only write connection is still free
+            Connection writeConnection = client.getWriteConnection();
+            writeConnection.close();
+
+            PreparedStatement write = connection.prepareStatement("CREATE TABLE routingTable (id INTEGER);");
+            Assert.assertNotSame(read.getConnection(), write.getConnection());
+            Assert.assertEquals(2, client.nodes.get("mem").inFlightConnections());
+            write.executeUpdate();
+
+            // Reads after a write see it from the writer, while the statements prepared on the reader are still usable
+            PreparedStatement readAfterWrite = connection.prepareStatement("select id from routingTable;");
+            Assert.assertSame(write.getConnection(), readAfterWrite.getConnection());
+            Assert.assertFalse(read.isClosed());
+            ResultSet rs = read.executeQuery();
+            rs.next();
+            Assert.assertEquals(1, rs.getInt(1));
+            rs.close();
+            read.close();
+            write.close();
+            readAfterWrite.close();
+        } finally {
+            connection.close();
+        }
+        Assert.assertEquals(0, client.nodes.get("mem").inFlightConnections());
+
+        Connection transaction = client.getConnection();
+        try {
+            PreparedStatement read = transaction.prepareStatement("select 1;");
+            transaction.setAutoCommit(false);
+            // A transaction runs on the writer from its first statement
+            PreparedStatement readInTransaction = transaction.prepareStatement("select 1;");
+            Assert.assertNotSame(read.getConnection(), readInTransaction.getConnection());
+            Assert.assertEquals(2, client.nodes.get("mem").inFlightConnections());
+            transaction.commit();
+        } finally {
+            transaction.close();
+        }
+        Assert.assertEquals(0, client.nodes.get("mem").inFlightConnections());
+    }
+
+    @Test
+    public void statementRoutingKeepsReaderResultSetOpenAcrossWrites() throws SQLException {
+        client.shutdown();
+        client = newClient("routing_cursor")
+                .maxConnectionsPerHost(1)
+                .minConnectionsIdlePerHost(1)
+                .readMaxConnectionsPerHost(1)
+                .autocommit(true)
+                .statementRouting(true)
+                .build();
+        executeUpdate("CREATE TABLE cursorTable (id INTEGER, visited BOOLEAN);");
+        executeUpdate("INSERT INTO cursorTable VALUES (1, FALSE), (2, FALSE), (3, FALSE);");
+
+        Connection connection = client.getConnection();
+        try {
+            PreparedStatement select = connection.prepareStatement("select id from cursorTable order by id;");
+            PreparedStatement update = connection.prepareStatement("update cursorTable set visited = TRUE where id = ?;");
+            ResultSet rs = select.executeQuery();
+            int rows = 0;
+            while (rs.next()) {
+                update.setInt(1, rs.getInt(1));
+                Assert.assertEquals(1, update.executeUpdate());
+                rows++;
+            }
+            Assert.assertEquals(3, rows);
+            rs.close();
+            select.close();
+            update.close();
+        } finally {
+            connection.close();
+        }
+        Assert.assertEquals(3, (int) executeQuery("select count(*) from cursorTable where visited;"));
+        Assert.assertEquals(0, client.nodes.get("mem").inFlightConnections());
+    }
+
+    @Test
+    public void readAfterWriteGoesToOriginNode() throws SQLException {
+        // H2 has no wsrep status, so the token is built by hand as if it was captured on the origin node
+        Connection readConnection = client.getReadConnectionAfter(new CausalityToken(null, 42, "mem"));
+        try {
+            Assert.assertSame(client.nodes.get("mem"), NodeConnection.galeraNodeOf(readConnection));
+        } finally {
+            readConnection.close();
+        }
+    }
+
+    @Test
+    public void causalityTokenOfLazyConnectionKnowsItsOrigin() throws SQLException {
+        final GaleraNode galeraNode = client.nodes.get("mem");
+        LazyConnection connection = new LazyConnection(new LazyConnection.ConnectionSource() {
+            @Override
+            public Connection getConnection() throws SQLException {
+                return new WsrepStatusConnection(galeraNode.getConnection(), 42);
+            }
+        }, true, false, -1);
+        try {
+            Assert.assertNull(NodeConnection.galeraNodeOf(connection));
+            CausalityToken token = client.causalityToken(connection);
+            Assert.assertEquals(42, token.seqno());
+            Assert.assertEquals("mem", token.originNode());
+            Assert.assertSame(galeraNode, NodeConnection.galeraNodeOf(connection));
+        } finally {
+            connection.close();
+        }
+    }
+
     public void executeUpdate(String stmt) throws SQLException {
         Connection conn = null;
         Statement statement = null;
@@ -97,4 +334,35 @@ public class H2IntegrationTest {
         }
     }
 
+
+    /**
+     * H2 has no wsrep status, this connection answers it as a Galera node would.
+     */
+    private static class WsrepStatusConnection extends DelegatingConnection {
+        private final long lastCommitted;
+
+        WsrepStatusConnection(Connection delegate, long lastCommitted) {
+            super(delegate);
+            this.lastCommitted = lastCommitted;
+        }
+
+        @Override
+        public Statement createStatement() throws SQLException {
+            final Statement statement = super.createStatement();
+            final String wsrepStatus = "SELECT 'wsrep_last_committed', '" + lastCommitted + "' UNION ALL SELECT 'wsrep_cluster_state_uuid', 'uuid'";
+            return (Statement) Proxy.newProxyInstance(Statement.class.getClassLoader(), new Class<?>[] { Statement.class }, new InvocationHandler() {
+                @Override
+                public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+                    if (method.getName().equals("executeQuery")) {
+                        return statement.executeQuery(wsrepStatus);
+                    }
+                    try {
+                        return method.invoke(statement, args);
+                    } catch (InvocationTargetException e) {
+                        throw e.getCause();
+                    }
+                }
+            });
+        }
+    }
 }
@@ -0,0 +1,49 @@
+package com.despegar.jdbc.galera;
+
+import com.despegar.jdbc.galera.metrics.PeakEwma;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+public class PeakEwmaTest {
+
+    @Test
+    public void peakReplacesAverageAndFasterSamplesDecayIt() throws InterruptedException {
+        PeakEwma latency = new PeakEwma(TimeUnit.MILLISECONDS.toNanos(1));
+        Assert.assertEquals(0, latency.get(), 0);
+
+        latency.update(TimeUnit.MILLISECONDS.toNanos(50));
+        Assert.assertEquals(TimeUnit.MILLISECONDS.toNanos(50), latency.get(), 1);
+
+        Thread.sleep(20);
+        latency.update(TimeUnit.MILLISECONDS.toNanos(1));
+        Assert.assertTrue(latency.get() < TimeUnit.MILLISECONDS.toNanos(2));
+    }
+
+    @Test
+    public void concurrentUpdatesKeepAConsistentValue() throws InterruptedException {
+        final PeakEwma latency = new PeakEwma(TimeUnit.SECONDS.toNanos(10));
+        final long sample = TimeUnit.MILLISECONDS.toNanos(3);
+        List<Thread> threads = new ArrayList<Thread>();
+        for (int i = 0; i < 8; i++) {
+            threads.add(new Thread(new Runnable() {
+                @Override
+                public void run() {
+                    for (int j = 0; j < 10000; j++) {
+                        latency.update(sample);
+                    }
+                }
+            }));
+        }
+        for (Thread thread : threads) {
+            thread.start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        Assert.assertEquals(sample, latency.get(), 1);
+    }
+}
@@ -0,0 +1,25 @@
+package com.despegar.jdbc.galera;
+
+import com.despegar.jdbc.galera.connection.SqlClassifier;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class SqlClassifierTest {
+    private final SqlClassifier sqlClassifier = new SqlClassifier(10);
+
+    @Test
+    public void onlyPlainSelectsAreReads() {
+        Assert.assertTrue(sqlClassifier.isRead("select id from users where id = ?"));
+        Assert.assertTrue(sqlClassifier.isRead("  /* users dao */ SELECT id FROM users"));
+        Assert.assertTrue(sqlClassifier.isRead("-- users dao\nselect id from users"));
+
+        Assert.assertFalse(sqlClassifier.isRead("insert into users values (?)"));
+        Assert.assertFalse(sqlClassifier.isRead("update users set name = ? where id = ?"));
+        Assert.assertFalse(sqlClassifier.isRead("select id from users where id = ? for update"));
+        Assert.assertFalse(sqlClassifier.isRead("select id from users lock in share mode"));
+        Assert.assertFalse(sqlClassifier.isRead("select last_insert_id()"));
+        Assert.assertFalse(sqlClassifier.isRead("select id into @id from users"));
+        Assert.assertFalse(sqlClassifier.isRead("selectivity"));
+        Assert.assertFalse(sqlClassifier.isRead(null));
+    }
+}